@@ -16,6 +16,7 @@ public class MessageConstant {
     public static final String ADDRESS_BOOK_IS_NULL = "用户地址为空，不能下单";
     public static final String LOGIN_FAILED = "登录失败";
     public static final String UPLOAD_FAILED = "文件上传失败";
+    public static final String UPLOAD_STATUS_NOT_FOUND = "上传记录不存在或已过期";
     public static final String SETMEAL_ENABLE_FAILED = "套餐内包含未启售菜品，无法启售";
     public static final String PASSWORD_EDIT_FAILED = "密码修改失败";
     public static final String DISH_ON_SALE = "起售中的菜品不能删除";
@@ -24,5 +25,23 @@ public class MessageConstant {
     public static final String ORDER_STATUS_ERROR = "订单状态错误";
     public static final String ORDER_NOT_FOUND = "订单不存在";
     public static final String USERNAME_EXISTS = "用户名已存在";
+    public static final String LOGIN_TOO_MANY_ATTEMPTS = "登录失败次数过多，请稍后再试";
+    public static final String LOGIN_BUSY = "登录繁忙，请稍后再试";
+    public static final String DISH_NAME_REQUIRED = "菜品名称不能为空";
+    public static final String DISH_NAME_EXISTS = "菜品名称已存在";
+    public static final String DISH_PRICE_INVALID = "菜品价格不正确";
+    public static final String DISH_DATA_INVALID = "菜品数据不符合要求";
+    public static final String CATEGORY_NOT_FOUND = "菜品分类不存在";
+    public static final String DISH_NOT_FOUND = "菜品不存在";
+    public static final String DATA_FORMAT_ERROR = "数据格式错误";
+    public static final String FORMAT_NOT_SUPPORTED = "不支持的数据格式";
+    public static final String STOCK_NOT_ENOUGH = "菜品库存不足";
+    public static final String STOCK_RESERVATION_NOT_FOUND = "库存预占不存在或已过期";
+    public static final String STOCK_INVALID = "库存数量不正确";
+    public static final String STOCK_RESERVATION_TOO_LARGE = "单次预占数量超过上限";
+    public static final String STOCK_RESERVATION_LIMIT = "未完成的库存预占过多，请稍后再试";
+    public static final String REPORT_DATE_RANGE_INVALID = "统计日期范围不正确";
+    public static final String STORE_NOT_FOUND = "门店不存在";
+    public static final String ACCOUNT_STORE_MISMATCH = "账号不属于该门店";
 
 }
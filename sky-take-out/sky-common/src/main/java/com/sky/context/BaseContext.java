@@ -1,19 +1,135 @@
 package com.sky.context;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 基于 ThreadLocal 保存当前请求的上下文
+ * 1、由拦截器在请求开始时写入，在 afterCompletion 中清理，避免线程池复用线程时串号
+ * 2、提交到其他线程执行的任务需要通过 wrap / propagating 包装，才能拿到提交方的上下文
+ */
 public class BaseContext {
 
-    public static ThreadLocal<Long> threadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<RequestContext> threadLocal = new ThreadLocal<>();
 
     public static void setCurrentId(Long id) {
-        threadLocal.set(id);
+        threadLocal.set(getContext().toBuilder().empId(id).build());
     }
 
     public static Long getCurrentId() {
-        return threadLocal.get();
+        RequestContext context = threadLocal.get();
+        return context == null ? null : context.getEmpId();
     }
 
     public static void removeCurrentId() {
         threadLocal.remove();
     }
 
+    public static void setUserId(Long userId) {
+        threadLocal.set(getContext().toBuilder().userId(userId).build());
+    }
+
+    public static Long getUserId() {
+        RequestContext context = threadLocal.get();
+        return context == null ? null : context.getUserId();
+    }
+
+    public static void setStoreId(Long storeId) {
+        threadLocal.set(getContext().toBuilder().storeId(storeId).build());
+    }
+
+    public static Long getStoreId() {
+        RequestContext context = threadLocal.get();
+        return context == null ? null : context.getStoreId();
+    }
+
+    public static void setTenantId(Long tenantId) {
+        threadLocal.set(getContext().toBuilder().tenantId(tenantId).build());
+    }
+
+    public static Long getTenantId() {
+        RequestContext context = threadLocal.get();
+        return context == null ? null : context.getTenantId();
+    }
+
+    /**
+     * 获取当前线程的上下文，没有时返回空上下文
+     *
+     * @return
+     */
+    public static RequestContext getContext() {
+        RequestContext context = threadLocal.get();
+        return context == null ? RequestContext.EMPTY : context;
+    }
+
+    public static void setContext(RequestContext context) {
+        if (context == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(context);
+        }
+    }
+
+    public static void clear() {
+        threadLocal.remove();
+    }
+
+    /**
+     * 捕获提交方的上下文，在执行线程上恢复，执行完毕后还原执行线程原有的上下文
+     *
+     * @param task
+     * @return
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestContext captured = threadLocal.get();
+        return () -> {
+            RequestContext previous = threadLocal.get();
+            setContext(captured);
+            try {
+                task.run();
+            } finally {
+                setContext(previous);
+            }
+        };
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        RequestContext captured = threadLocal.get();
+        return () -> {
+            RequestContext previous = threadLocal.get();
+            setContext(captured);
+            try {
+                return task.call();
+            } finally {
+                setContext(previous);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        RequestContext captured = threadLocal.get();
+        return () -> {
+            RequestContext previous = threadLocal.get();
+            setContext(captured);
+            try {
+                return supplier.get();
+            } finally {
+                setContext(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装线程池，使提交给它的每个任务都携带提交时的上下文
+     * 用于 CompletableFuture.supplyAsync(supplier, BaseContext.propagating(executor)) 等场景，
+     * 注意不要使用不带 executor 参数的 *Async 方法，ForkJoinPool.commonPool 不会传递上下文
+     *
+     * @param executor
+     * @return
+     */
+    public static Executor propagating(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+
 }
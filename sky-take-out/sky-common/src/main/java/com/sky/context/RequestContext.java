@@ -0,0 +1,32 @@
+package com.sky.context;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * 请求上下文：一次请求内需要跨层传递的身份信息
+ * 不可变对象，线程之间传递时直接共享引用即可
+ */
+@Value
+@Builder(toBuilder = true)
+public class RequestContext implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final RequestContext EMPTY = RequestContext.builder().build();
+
+    //当前登录员工id
+    Long empId;
+
+    //当前登录的微信用户id
+    Long userId;
+
+    //租户id
+    Long tenantId;
+
+    //门店id
+    Long storeId;
+
+}
@@ -0,0 +1,15 @@
+package com.sky.exception;
+
+/**
+ * 菜品不存在异常
+ */
+public class DishNotFoundException extends BaseException {
+
+    public DishNotFoundException() {
+    }
+
+    public DishNotFoundException(String msg) {
+        super(msg);
+    }
+
+}
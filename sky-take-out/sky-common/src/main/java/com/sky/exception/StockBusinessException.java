@@ -0,0 +1,9 @@
+package com.sky.exception;
+
+public class StockBusinessException extends BaseException {
+
+    public StockBusinessException(String msg) {
+        super(msg);
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.sky.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预先序列化好的响应体：UTF-8 JSON、gzip 压缩版本及 ETag
+ * 同一个 ETag 对应原文和 gzip 两种字节，因此使用弱 ETag（按 JSON 内容计算，只表示语义相同）
+ * 与缓存对象一起保存，命中缓存时由 SerializedPayloadHttpMessageConverter 直接写出，不再经过 Jackson；
+ * 构建完成后不再修改，数组直接共享给所有请求，调用方不能修改其内容
+ */
+@Getter
+public class SerializedPayload {
+
+    private final byte[] json;
+
+    private final byte[] gzip;
+
+    private final String etag;
+
+    public SerializedPayload(byte[] json) {
+        this.json = json;
+        this.gzip = gzip(json);
+        this.etag = "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    /**
+     * 序列化对象
+     *
+     * @param objectMapper
+     * @param value
+     * @return
+     */
+    public static SerializedPayload of(ObjectMapper objectMapper, Object value) {
+        try {
+            return new SerializedPayload(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("响应序列化失败", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("响应压缩失败", e);
+        }
+        return gzip.toByteArray();
+    }
+}
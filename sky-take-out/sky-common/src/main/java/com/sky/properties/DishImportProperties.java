@@ -0,0 +1,22 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.dish-import")
+@Data
+public class DishImportProperties {
+
+    /**
+     * 每批写入的菜品数量，每批一个事务、一次 JDBC batch
+     */
+    private int batchSize = 500;
+
+    /**
+     * 导入结果中最多返回的错误行数
+     */
+    private int maxReportedErrors = 1000;
+
+}
@@ -0,0 +1,42 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "sky.image")
+@Data
+public class ImageProperties {
+
+    /**
+     * 上传图片后生成的缩略图宽度（像素）
+     */
+    private List<Integer> thumbnailWidths = new ArrayList<>(Arrays.asList(120, 360, 750));
+
+    /**
+     * 缩略图格式，运行环境没有对应的 ImageIO 编码器时退回 jpg
+     */
+    private String thumbnailFormat = "webp";
+
+    /**
+     * 缩略图压缩质量 0~1
+     */
+    private float thumbnailQuality = 0.8f;
+
+    /**
+     * 用户端菜单列表使用的缩略图宽度
+     */
+    private int listWidth = 360;
+
+    /**
+     * 图片处理线程池大小及排队上限
+     */
+    private int workerPoolSize = 2;
+    private int workerQueueCapacity = 100;
+
+}
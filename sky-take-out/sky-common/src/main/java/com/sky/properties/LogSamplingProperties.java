@@ -0,0 +1,22 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.log-sampling")
+@Data
+public class LogSamplingProperties {
+
+    /**
+     * 采样比例 0~1：被采样的请求输出 com.sky 包下的 DEBUG 日志（请求参数、SQL 等），其余请求按配置的级别输出
+     */
+    private double rate = 0.01;
+
+    /**
+     * 带有该请求头（值为 1/true）的请求强制采样，便于排查单个请求
+     */
+    private String forceHeader = "X-Log-Sample";
+
+}
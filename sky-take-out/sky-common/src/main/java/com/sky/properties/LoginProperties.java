@@ -0,0 +1,35 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.login")
+@Data
+public class LoginProperties {
+
+    /**
+     * 密码哈希迭代次数，调高后旧密码在下次登录时自动重算
+     */
+    private int hashIterations = 120000;
+
+    /**
+     * 密码校验专用线程池大小及排队上限，超出时直接拒绝登录请求
+     */
+    private int hashPoolSize = Runtime.getRuntime().availableProcessors();
+    private int hashQueueCapacity = 64;
+    private long hashTimeoutMillis = 3000;
+
+    /**
+     * 员工登录信息缓存时间（秒）
+     */
+    private long principalTtlSeconds = 1800;
+
+    /**
+     * 连续登录失败次数上限及锁定时间（分钟）
+     */
+    private int maxFailedAttempts = 5;
+    private long lockMinutes = 15;
+
+}
@@ -0,0 +1,44 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.outbox")
+@Data
+public class OutboxProperties {
+
+    /**
+     * 发件箱轮询间隔（毫秒），事务提交后也会立即触发一次投递
+     */
+    private long pollIntervalMillis = 1000;
+
+    /**
+     * 每批投递的事件数、每次轮询最多投递的批数
+     */
+    private int batchSize = 100;
+    private int maxBatchesPerRun = 10;
+
+    /**
+     * 投递锁的租期（毫秒），同一时间只有一个节点投递，保证顺序
+     */
+    private long lockLeaseMillis = 30000;
+
+    /**
+     * Redis Stream 保留的最大消息数（近似裁剪）
+     */
+    private long streamMaxLength = 10000;
+
+    /**
+     * 消费端阻塞读取的超时时间（毫秒）、本地去重键的保留个数
+     */
+    private long streamPollTimeoutMillis = 2000;
+    private int dedupCapacity = 10000;
+
+    /**
+     * 已投递事件的保留天数
+     */
+    private int retentionDays = 7;
+
+}
@@ -0,0 +1,88 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "sky.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    /**
+     * 是否开启限流，关闭后只保留过载保护
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否同时使用 Redis 令牌桶做集群维度的限流；本地令牌桶始终生效，限制单个节点
+     * Redis 不可用时放行，只依赖本地令牌桶
+     */
+    private boolean distributed = false;
+
+    /**
+     * 未单独配置的接口使用的规则
+     */
+    private Rule defaultRule = new Rule();
+
+    /**
+     * 按接口配置的规则：接口路径模式（与 @GetMapping 等声明的一致，如 /admin/dish/page）-> 规则
+     */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    /**
+     * 本地令牌桶闲置多久后回收（毫秒）
+     */
+    private long idleEvictMillis = 600000;
+
+    /**
+     * 过载保护
+     */
+    private Shedding shedding = new Shedding();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * 桶容量，即允许的突发请求数
+         */
+        private int capacity = 50;
+
+        /**
+         * 每秒补充的令牌数，即持续请求速率
+         */
+        private double permitsPerSecond = 20;
+
+    }
+
+    @Data
+    public static class Shedding {
+
+        private boolean enabled = true;
+
+        /**
+         * 节点同时处理中的请求数上限，超过后新请求直接返回 503
+         */
+        private int maxInFlight = 200;
+
+        /**
+         * 等待数据库连接的线程数上限，超过后新请求直接返回 503
+         */
+        private int maxPoolWaitThreads = 20;
+
+        /**
+         * 连接池状态的采样间隔（毫秒），请求线程只读取采样结果
+         */
+        private long sampleIntervalMillis = 200;
+
+        /**
+         * 503 响应的 Retry-After（秒）
+         */
+        private int retryAfterSeconds = 1;
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.read-cache")
+@Data
+public class ReadCacheProperties {
+
+    /**
+     * 菜品详情（管理端按id查询）本地缓存的过期时间（秒），菜品变化由事件和表版本号即时失效
+     */
+    private long dishTtlSeconds = 300;
+
+    /**
+     * 提前刷新系数：越大越早刷新，为 0 时只在过期后刷新
+     * 为 1 时，加载耗时 50ms 的值大约在过期前 0~200ms 内被某个请求提前刷新
+     */
+    private double earlyRefreshBeta = 1.0;
+
+}
@@ -0,0 +1,32 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.sales")
+@Data
+public class SalesProperties {
+
+    /**
+     * Redis 中每日销量排行的保留天数，过期的日期在查询时从汇总表重新加载
+     */
+    private int retentionDays = 62;
+
+    /**
+     * 今天、昨天的排行从数据库加载后的有效时间（秒），到期后重新加载，修正实时累加的偏差
+     */
+    private int openDayReadySeconds = 60;
+
+    /**
+     * 多日合并结果（ZUNIONSTORE）的缓存时间（秒），看板轮询时直接读取合并结果
+     */
+    private int unionTtlSeconds = 5;
+
+    /**
+     * 每晚把前两天的销量汇总写入 sales_daily 的时间
+     */
+    private String compactCron = "0 10 0 * * ?";
+
+}
@@ -0,0 +1,18 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.setmeal")
+@Data
+public class SetmealProperties {
+
+    /**
+     * 套餐展示缓存的最长保留时间（分钟）。菜品变化通过事件即时失效；
+     * 套餐本身在其他系统中被修改时没有事件，靠过期兜底
+     */
+    private int cacheTtlMinutes = 10;
+
+}
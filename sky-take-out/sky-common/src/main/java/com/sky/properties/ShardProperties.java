@@ -0,0 +1,41 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "sky.shard")
+@Data
+public class ShardProperties {
+
+    /**
+     * 是否按门店分库，关闭时只使用 spring.datasource.druid 一个数据源
+     */
+    private boolean enabled = false;
+
+    /**
+     * 默认分片名，对应 spring.datasource.druid 配置的数据源，没有门店id的请求（如未带门店的登录、定时任务）落在这里
+     */
+    private String defaultShard = "ds0";
+
+    /**
+     * 门店分片：分片名 -> 配置，每个分片是一个独立的库，只存放一个门店的数据。
+     * 数据源在 spring.datasource.druid 的基础上，用 sky.shard.shards.分片名 下的同名属性覆盖（url、username、password 等）
+     */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+
+        /**
+         * 该分片存放的门店id
+         */
+        private Long storeId;
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.stock")
+@Data
+public class StockProperties {
+
+    /**
+     * 每个菜品本地计数器的分段数，为 0 时取 CPU 核数
+     */
+    private int stripes = 0;
+
+    /**
+     * 节点每次从 Redis 租用的库存数量，租到的库存在本地扣减，不再访问 Redis
+     */
+    private int leaseSize = 20;
+
+    /**
+     * 租约时长（毫秒），到期后本地未用完的库存归还 Redis，节点宕机时最多损失一个租约的库存（少卖，不会超卖）
+     */
+    private long leaseMillis = 2000;
+
+    /**
+     * Redis 中未分配的库存低于该值时不再整块租用，按需逐单扣减，避免库存散落在各节点导致提前售罄
+     */
+    private int directThreshold = 100;
+
+    /**
+     * 未确认的预占多久后自动释放（分钟）
+     */
+    private int reservationTimeoutMinutes = 15;
+
+    /**
+     * 单次预占的菜品总份数上限，防止一次请求占满限量菜品的库存
+     */
+    private int maxReservationNumber = 20;
+
+    /**
+     * 每个用户同时未确认的预占数量上限
+     */
+    private int maxActiveReservations = 3;
+
+    /**
+     * 本地已扣减数量上报、到期租约归还的间隔（毫秒）
+     */
+    private long flushIntervalMillis = 1000;
+
+    /**
+     * 已预占数量写回 MySQL 的间隔（毫秒）
+     */
+    private long reconcileIntervalMillis = 30000;
+
+}
@@ -0,0 +1,44 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.upload")
+@Data
+public class UploadProperties {
+
+    /**
+     * 默认是否使用异步上传：先落盘并立即返回访问路径，再由后台线程传到 OSS
+     */
+    private boolean async = false;
+
+    /**
+     * 异步上传的本地暂存目录，未传完的文件在应用重启后会继续上传
+     */
+    private String spoolDir = System.getProperty("java.io.tmpdir") + "/sky-upload";
+
+    /**
+     * 后台上传线程数及排队上限，队列满时退回同步上传
+     */
+    private int workerCount = 4;
+    private int queueCapacity = 200;
+
+    /**
+     * 单个文件最多尝试次数，重试间隔按次数翻倍
+     */
+    private int maxAttempts = 5;
+    private long retryBackoffMillis = 1000;
+
+    /**
+     * 重试次数用完（FAILED）的暂存文件重新提交的间隔（毫秒）
+     */
+    private long failedRetryIntervalMillis = 600000;
+
+    /**
+     * 上传状态保留时间（分钟）
+     */
+    private long statusTtlMinutes = 60;
+
+}
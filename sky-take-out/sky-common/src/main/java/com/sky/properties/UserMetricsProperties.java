@@ -0,0 +1,22 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.user-metrics")
+@Data
+public class UserMetricsProperties {
+
+    /**
+     * Redis 中累计用户数的有效时长（小时），到期后下次查询按数据库重新回填，修正实时累加遗漏的注册
+     */
+    private int reloadHours = 24;
+
+    /**
+     * 每日活跃用户 HyperLogLog 的保留天数
+     */
+    private int activeRetentionDays = 400;
+
+}
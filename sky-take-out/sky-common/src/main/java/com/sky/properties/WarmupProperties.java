@@ -0,0 +1,40 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "sky.warmup")
+@Data
+public class WarmupProperties {
+
+    /**
+     * 是否在启动时预热缓存，预热完成前就绪探针（/actuator/health/readiness）不会变为 UP
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同时执行的预热任务数，避免启动时占满数据库连接池
+     */
+    private int parallelism = 4;
+
+    /**
+     * 预热总时长上限（秒），超时后不再等待未完成的任务，直接对外提供服务
+     */
+    private int timeoutSeconds = 60;
+
+    /**
+     * 按缓存开关：缓存名 -> 是否预热，未配置的缓存默认预热
+     * 缓存名：category-list、menu-snapshot、menu-dependency-index、jwt-key
+     */
+    private Map<String, Boolean> caches = new LinkedHashMap<>();
+
+    public boolean isEnabled(String cacheName) {
+        return caches.getOrDefault(cacheName, true);
+    }
+
+}
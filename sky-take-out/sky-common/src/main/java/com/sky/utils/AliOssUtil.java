@@ -4,20 +4,53 @@ import com.aliyun.oss.ClientException;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import com.aliyun.oss.OSSException;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+
 import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
 
-@Data
-@AllArgsConstructor
+/**
+ * 阿里云 OSS 工具类
+ * OSSClient 是线程安全的，整个应用共用一个实例（内部维护连接池），容器关闭时调用 shutdown 释放
+ */
+@Getter
 @Slf4j
 public class AliOssUtil {
 
-    private String endpoint;
-    private String accessKeyId;
-    private String accessKeySecret;
-    private String bucketName;
+    private final String endpoint;
+    private final String accessKeyId;
+    private final String accessKeySecret;
+    private final String bucketName;
+
+    private volatile OSS ossClient;
+
+    public AliOssUtil(String endpoint, String accessKeyId, String accessKeySecret, String bucketName) {
+        this.endpoint = endpoint;
+        this.accessKeyId = accessKeyId;
+        this.accessKeySecret = accessKeySecret;
+        this.bucketName = bucketName;
+    }
+
+    /**
+     * 判断文件是否已经存在，用于按内容哈希去重
+     *
+     * @param objectName
+     * @return
+     */
+    public boolean exists(String objectName) {
+        return client().doesObjectExist(bucketName, objectName);
+    }
+
+    /**
+     * 文件访问路径规则 https://BucketName.Endpoint/ObjectName
+     *
+     * @param objectName
+     * @return
+     */
+    public String getUrl(String objectName) {
+        return "https://" + bucketName + "." + endpoint + "/" + objectName;
+    }
 
     /**
      * 文件上传
@@ -27,42 +60,74 @@ public class AliOssUtil {
      * @return
      */
     public String upload(byte[] bytes, String objectName) {
+        try {
+            client().putObject(bucketName, objectName, new ByteArrayInputStream(bytes));
+        } catch (OSSException | ClientException e) {
+            logFailure(objectName, e);
+            throw e;
+        }
 
-        // 创建OSSClient实例。
-        OSS ossClient = new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret);
+        String url = getUrl(objectName);
+        log.info("文件上传到:{}", url);
 
+        return url;
+    }
+
+    /**
+     * 上传本地文件，SDK 直接读取文件，不需要把内容读进内存
+     *
+     * @param file
+     * @param objectName
+     * @return
+     */
+    public String upload(Path file, String objectName) {
         try {
-            // 创建PutObject请求。
-            ossClient.putObject(bucketName, objectName, new ByteArrayInputStream(bytes));
-        } catch (OSSException oe) {
-            System.out.println("Caught an OSSException, which means your request made it to OSS, "
-                    + "but was rejected with an error response for some reason.");
-            System.out.println("Error Message:" + oe.getErrorMessage());
-            System.out.println("Error Code:" + oe.getErrorCode());
-            System.out.println("Request ID:" + oe.getRequestId());
-            System.out.println("Host ID:" + oe.getHostId());
-        } catch (ClientException ce) {
-            System.out.println("Caught an ClientException, which means the client encountered "
-                    + "a serious internal problem while trying to communicate with OSS, "
-                    + "such as not being able to access the network.");
-            System.out.println("Error Message:" + ce.getMessage());
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
+            client().putObject(bucketName, objectName, file.toFile());
+        } catch (OSSException | ClientException e) {
+            logFailure(objectName, e);
+            throw e;
         }
 
-        //文件访问路径规则 https://BucketName.Endpoint/ObjectName
-        StringBuilder stringBuilder = new StringBuilder("https://");
-        stringBuilder
-                .append(bucketName)
-                .append(".")
-                .append(endpoint)
-                .append("/")
-                .append(objectName);
+        String url = getUrl(objectName);
+        log.info("文件上传到:{}", url);
 
-        log.info("文件上传到:{}", stringBuilder.toString());
+        return url;
+    }
 
-        return stringBuilder.toString();
+    /**
+     * 释放 OSSClient 的连接
+     */
+    public void shutdown() {
+        OSS client = this.ossClient;
+        if (client != null) {
+            client.shutdown();
+            this.ossClient = null;
+        }
+    }
+
+    private OSS client() {
+        OSS client = this.ossClient;
+        if (client == null) {
+            synchronized (this) {
+                client = this.ossClient;
+                if (client == null) {
+                    client = new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret);
+                    this.ossClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private void logFailure(String objectName, RuntimeException e) {
+        if (e instanceof OSSException) {
+            // 请求到达了 OSS，但被拒绝
+            OSSException oe = (OSSException) e;
+            log.error("文件上传被 OSS 拒绝：{}，错误码：{}，错误信息：{}，RequestId：{}，HostId：{}",
+                    objectName, oe.getErrorCode(), oe.getErrorMessage(), oe.getRequestId(), oe.getHostId());
+        } else {
+            // 客户端与 OSS 通信失败，如网络不可用
+            log.error("文件上传失败，无法与 OSS 通信：{}，错误信息：{}", objectName, e.getMessage());
+        }
     }
 }
@@ -0,0 +1,102 @@
+package com.sky.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 简单的 CSV 工具类：支持双引号包裹的字段及 "" 转义，引号内的字段可以包含换行
+ */
+public class CsvUtil {
+
+    /**
+     * 读取一条 CSV 记录：引号未闭合时换行属于字段内容，继续读取下一行，
+     * 导出时被引号包裹的多行字段因此能原样读回（字段内的 \r\n 读回后为 \n）
+     *
+     * @param reader
+     * @return 已读到末尾时返回 null
+     * @throws IOException
+     */
+    public static String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        boolean quoted = quoted(line, false);
+        if (!quoted) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (quoted && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quoted = quoted(line, quoted);
+        }
+        return record.toString();
+    }
+
+    /**
+     * 读完一行后引号是否仍未闭合，"" 转义相当于关闭后立即重新打开，不影响结果
+     */
+    private static boolean quoted(String line, boolean quoted) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+
+    /**
+     * 解析一条 CSV 记录（由 readRecord 读取，可能包含字段内换行）
+     *
+     * @param line
+     * @return
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 转义单个字段，包含逗号、引号、换行时用双引号包裹
+     *
+     * @param value
+     * @return
+     */
+    public static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,83 @@
+package com.sky.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 图片变体（缩略图）命名及解析
+ * 原图按内容哈希命名：{sha256}.{扩展名}，缩略图命名：{sha256}_{宽度}.{格式}
+ * 只有按内容哈希命名、且缩略图已经生成的图片才返回缩略图，其他（历史上传的 UUID 文件名、非图片文件、缩略图尚未生成）原样返回
+ */
+public class ImageVariantResolver {
+
+    private static final Pattern HASHED_NAME = Pattern.compile("[0-9a-f]{64}\\.[A-Za-z0-9]+");
+
+    private final List<Integer> widths;
+    private final String format;
+    private final Predicate<String> variantsReady;
+
+    /**
+     * @param widths        缩略图宽度
+     * @param format        缩略图格式
+     * @param variantsReady 按内容哈希判断缩略图是否已经生成
+     */
+    public ImageVariantResolver(List<Integer> widths, String format, Predicate<String> variantsReady) {
+        List<Integer> sorted = new ArrayList<>(widths);
+        Collections.sort(sorted);
+        this.widths = Collections.unmodifiableList(sorted);
+        this.format = format;
+        this.variantsReady = variantsReady;
+    }
+
+    public List<Integer> getWidths() {
+        return widths;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * 缩略图的文件名
+     *
+     * @param hash
+     * @param width
+     * @return
+     */
+    public String variantName(String hash, int width) {
+        return hash + "_" + width + "." + format;
+    }
+
+    /**
+     * 根据展示宽度选择合适的缩略图：不小于该宽度的最小尺寸，都不满足时使用最大尺寸
+     *
+     * @param url   原图访问路径
+     * @param width 展示宽度
+     * @return 缩略图访问路径；不是按内容哈希命名或缩略图尚未生成的图片返回原路径
+     */
+    public String resolve(String url, int width) {
+        if (url == null || widths.isEmpty()) {
+            return url;
+        }
+        int slash = url.lastIndexOf('/');
+        String name = url.substring(slash + 1);
+        if (!HASHED_NAME.matcher(name).matches()) {
+            return url;
+        }
+        String hash = name.substring(0, name.indexOf('.'));
+        if (!variantsReady.test(hash)) {
+            return url;
+        }
+        int chosen = widths.get(widths.size() - 1);
+        for (Integer candidate : widths) {
+            if (candidate >= width) {
+                chosen = candidate;
+                break;
+            }
+        }
+        return url.substring(0, slash + 1) + variantName(hash, chosen);
+    }
+}
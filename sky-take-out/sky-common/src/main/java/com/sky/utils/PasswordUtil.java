@@ -0,0 +1,105 @@
+package com.sky.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 密码加密工具类
+ * 使用加盐的 PBKDF2-HmacSHA256，迭代次数可配置（自适应：调高迭代次数后，旧哈希在下次登录时自动重算）
+ * 存储格式：pbkdf2$迭代次数$盐$哈希，盐 12 字节、哈希 24 字节，最长 64 个字符，可直接存入原 password 字段
+ * 兼容历史的无盐 MD5 摘要（32 位十六进制），校验通过后由调用方重算为新格式
+ */
+@Slf4j
+public class PasswordUtil {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_BYTES = 12;
+    private static final int HASH_BYTES = 24;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordUtil(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * 对明文密码进行加盐哈希
+     *
+     * @param rawPassword
+     * @return
+     */
+    public String encode(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(rawPassword, salt, iterations);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return PREFIX + SEPARATOR + iterations + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR + encoder.encodeToString(hash);
+    }
+
+    /**
+     * 校验明文密码与存储的哈希是否匹配
+     *
+     * @param rawPassword
+     * @param storedPassword
+     * @return
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (isLegacy(storedPassword)) {
+            byte[] md5 = DigestUtils.md5DigestAsHex(rawPassword.getBytes(StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            return MessageDigest.isEqual(md5, storedPassword.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = storedPassword.split("\\" + SEPARATOR);
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            log.warn("无法识别的密码格式");
+            return false;
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        byte[] salt = decoder.decode(parts[2]);
+        byte[] expected = decoder.decode(parts[3]);
+        byte[] actual = pbkdf2(rawPassword, salt, Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * 是否需要重新计算哈希：历史 MD5 摘要，或迭代次数低于当前配置
+     *
+     * @param storedPassword
+     * @return
+     */
+    public boolean needsRehash(String storedPassword) {
+        if (storedPassword == null || isLegacy(storedPassword)) {
+            return true;
+        }
+        String[] parts = storedPassword.split("\\" + SEPARATOR);
+        return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+    }
+
+    private boolean isLegacy(String storedPassword) {
+        return storedPassword.length() == 32 && !storedPassword.startsWith(PREFIX);
+    }
+
+    private byte[] pbkdf2(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BYTES * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("密码哈希计算失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sky.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DailySalesDTO implements Serializable {
+    //销售日期（下单日期）
+    private LocalDate date;
+
+    //商品名称
+    private String name;
+
+    //销量
+    private Integer number;
+}
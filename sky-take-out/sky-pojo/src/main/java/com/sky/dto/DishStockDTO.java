@@ -0,0 +1,23 @@
+package com.sky.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@ApiModel(description = "设置菜品每日库存时传递的数据模型")
+public class DishStockDTO implements Serializable {
+
+    @ApiModelProperty(value = "菜品id", required = true)
+    private Long dishId;
+
+    @ApiModelProperty("库存日期，为空时为当天")
+    private LocalDate stockDate;
+
+    @ApiModelProperty(value = "当日库存", required = true)
+    private Integer total;
+
+}
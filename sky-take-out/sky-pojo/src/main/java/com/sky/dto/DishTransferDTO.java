@@ -0,0 +1,41 @@
+package com.sky.dto;
+
+import com.sky.entity.DishFlavor;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ApiModel(description = "批量导入/导出菜品时每一行的数据")
+public class DishTransferDTO implements Serializable {
+
+    @ApiModelProperty(value = "菜品名称", required = true)
+    private String name;
+
+    @ApiModelProperty(value = "菜品分类id，与分类名称二选一")
+    private Long categoryId;
+
+    @ApiModelProperty(value = "菜品分类名称，与分类id二选一")
+    private String categoryName;
+
+    @ApiModelProperty(value = "菜品价格", required = true)
+    private BigDecimal price;
+
+    @ApiModelProperty("菜品图片路径")
+    private String image;
+
+    @ApiModelProperty("菜品描述")
+    private String description;
+
+    @ApiModelProperty("菜品状态，为空时停售")
+    private Integer status;
+
+    @ApiModelProperty("菜品口味")
+    private List<DishFlavor> flavors = new ArrayList<>();
+
+}
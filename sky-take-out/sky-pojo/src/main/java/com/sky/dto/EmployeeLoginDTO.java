@@ -16,4 +16,7 @@ public class EmployeeLoginDTO implements Serializable {
     @ApiModelProperty("密码")
     private String password;
 
+    @ApiModelProperty("门店id，分库部署时用于定位员工所在的分片")
+    private Long storeId;
+
 }
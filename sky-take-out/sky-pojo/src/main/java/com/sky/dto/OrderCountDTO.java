@@ -0,0 +1,24 @@
+package com.sky.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderCountDTO implements Serializable {
+    //下单日期
+    private LocalDate date;
+
+    //订单状态
+    private Integer status;
+
+    //订单数
+    private Integer count;
+}
@@ -0,0 +1,29 @@
+package com.sky.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ApiModel(description = "预占菜品库存时传递的数据模型")
+public class StockReservationDTO implements Serializable {
+
+    @ApiModelProperty(value = "预占的菜品及数量", required = true)
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    public static class Item implements Serializable {
+
+        @ApiModelProperty(value = "菜品id", required = true)
+        private Long dishId;
+
+        @ApiModelProperty(value = "数量", required = true)
+        private Integer number;
+
+    }
+
+}
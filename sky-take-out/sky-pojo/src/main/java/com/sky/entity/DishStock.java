@@ -0,0 +1,40 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 菜品每日库存
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishStock implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    //菜品id
+    private Long dishId;
+
+    //库存日期
+    private LocalDate stockDate;
+
+    //当日库存
+    private Integer total;
+
+    //已预占数量
+    private Integer sold;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
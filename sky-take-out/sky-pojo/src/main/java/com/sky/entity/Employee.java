@@ -32,6 +32,9 @@ public class Employee implements Serializable {
 
     private Integer status;
 
+    //所属门店，为空表示默认门店
+    private Long storeId;
+
     //@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createTime;
 
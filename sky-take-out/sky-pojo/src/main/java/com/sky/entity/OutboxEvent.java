@@ -0,0 +1,51 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 事务发件箱中的事件
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final Integer PENDING = 0;
+    public static final Integer SENT = 1;
+
+    private Long id;
+
+    //聚合类型，如 menu
+    private String aggregateType;
+
+    //聚合id，同一聚合的事件按id顺序投递
+    private String aggregateId;
+
+    //事件类型
+    private String eventType;
+
+    //去重键
+    private String dedupKey;
+
+    //事件内容（json）
+    private String payload;
+
+    //状态 0 待投递 1 已投递
+    private Integer status;
+
+    //投递失败次数
+    private Integer attempts;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime sentTime;
+}
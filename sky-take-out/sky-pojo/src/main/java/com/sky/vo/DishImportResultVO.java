@@ -0,0 +1,45 @@
+package com.sky.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishImportResultVO implements Serializable {
+
+    //数据总行数（不含表头、空行）
+    private int total;
+
+    //导入成功行数
+    private int success;
+
+    //导入失败行数
+    private int failed;
+
+    //失败行的明细
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError implements Serializable {
+
+        //行号，从 1 开始，包含表头
+        private long line;
+
+        //菜品名称
+        private String name;
+
+        //失败原因
+        private String message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.sky.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "菜品每日库存")
+public class DishStockVO implements Serializable {
+
+    @ApiModelProperty("菜品id")
+    private Long dishId;
+
+    @ApiModelProperty("库存日期")
+    private LocalDate stockDate;
+
+    @ApiModelProperty("当日库存，-1 表示不限量")
+    private Integer total;
+
+    @ApiModelProperty("已预占数量，各节点本地未上报的部分会在一秒左右内计入")
+    private Integer sold;
+
+    @ApiModelProperty("尚未分配给任何节点的库存")
+    private Integer remaining;
+
+}
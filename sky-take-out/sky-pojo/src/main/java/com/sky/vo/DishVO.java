@@ -26,6 +26,8 @@ public class DishVO implements Serializable {
     private BigDecimal price;
     //图片
     private String image;
+    //列表缩略图
+    private String thumbnail;
     //描述信息
     private String description;
     //0 停售 1 起售
@@ -0,0 +1,48 @@
+package com.sky.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户端套餐展示：套餐及其包含的菜品（名称、图片、份数）一次给出
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetmealComboVO implements Serializable {
+
+    private Long id;
+
+    //分类id
+    private Long categoryId;
+
+    //套餐名称
+    private String name;
+
+    //套餐价格
+    private BigDecimal price;
+
+    //状态 0:停用 1:启用
+    private Integer status;
+
+    //描述信息
+    private String description;
+
+    //图片
+    private String image;
+
+    //列表缩略图
+    private String thumbnail;
+
+    //包含的菜品
+    @Builder.Default
+    private List<DishItemVO> dishes = new ArrayList<>();
+}
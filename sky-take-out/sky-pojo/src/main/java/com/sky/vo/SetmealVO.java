@@ -37,6 +37,9 @@ public class SetmealVO implements Serializable {
     //图片
     private String image;
 
+    //列表缩略图
+    private String thumbnail;
+
     //更新时间
     private LocalDateTime updateTime;
 
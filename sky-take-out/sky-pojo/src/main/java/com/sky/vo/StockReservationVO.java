@@ -0,0 +1,26 @@
+package com.sky.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "库存预占结果")
+public class StockReservationVO implements Serializable {
+
+    @ApiModelProperty("预占id，下单成功后确认，取消时释放")
+    private String reservationId;
+
+    @ApiModelProperty("过期时间，未确认的预占到期自动释放")
+    private LocalDateTime expireTime;
+
+}
@@ -0,0 +1,46 @@
+package com.sky.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "异步上传队列状态")
+public class UploadQueueHealthVO implements Serializable {
+
+    @ApiModelProperty("UP 正常 BUSY 队列已满")
+    private String status;
+
+    @ApiModelProperty("排队中的文件数")
+    private Integer queueDepth;
+
+    @ApiModelProperty("队列容量")
+    private Integer queueCapacity;
+
+    @ApiModelProperty("正在上传的文件数")
+    private Integer activeCount;
+
+    @ApiModelProperty("暂存目录中尚未上传完成的文件数")
+    private Long spooledFiles;
+
+    @ApiModelProperty("启动以来上传成功的文件数")
+    private Long succeeded;
+
+    @ApiModelProperty("启动以来重试的次数")
+    private Long retried;
+
+    @ApiModelProperty("启动以来最终失败的文件数")
+    private Long failed;
+
+    @ApiModelProperty("队列满退回同步上传的次数")
+    private Long rejected;
+
+}
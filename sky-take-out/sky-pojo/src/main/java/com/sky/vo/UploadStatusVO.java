@@ -0,0 +1,39 @@
+package com.sky.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "异步上传状态")
+public class UploadStatusVO implements Serializable {
+
+    public static final String PENDING = "PENDING";
+    public static final String UPLOADING = "UPLOADING";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+
+    @ApiModelProperty("文件名")
+    private String objectName;
+
+    @ApiModelProperty("状态 PENDING 排队中 UPLOADING 上传中 SUCCESS 成功 FAILED 失败")
+    private String status;
+
+    @ApiModelProperty("已尝试次数")
+    private Integer attempts;
+
+    @ApiModelProperty("最近一次失败原因")
+    private String message;
+
+    @ApiModelProperty("访问路径")
+    private String url;
+
+}
@@ -3,14 +3,30 @@ package com.sky;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableTransactionManagement //开启注解方式的事务管理
+@EnableScheduling //开启定时任务
 @Slf4j
 public class SkyApplication {
+
+    //启动过程记录的步骤数上限，超出的步骤不再记录
+    private static final int STARTUP_STEPS = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(SkyApplication.class, args);
+        SpringApplication application = new SpringApplication(SkyApplication.class);
+        //记录启动过程中各阶段、各 Bean 的耗时，通过 /actuator/startup 查看
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        ConfigurableApplicationContext context = application.run(args);
         log.info("server started");
+
+        //生成 AppCDS 归档的训练运行（mvn package -Pappcds）：启动完成后立即退出，JVM 退出时写出已加载的类
+        if (Boolean.getBoolean("sky.cds.training")) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
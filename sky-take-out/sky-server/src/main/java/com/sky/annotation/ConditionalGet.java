@@ -0,0 +1,17 @@
+package com.sky.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * 标注在 GET 接口上，根据所读表的版本号生成 ETag
+ * 请求携带的 If-None-Match 与当前 ETag 一致时直接返回 304，不再执行 Controller、Service 和 Mapper
+ * */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    // 接口响应所依赖的表，任意一张表发生写入都会改变 ETag
+    String[] tables();
+}
@@ -0,0 +1,17 @@
+package com.sky.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * 标注在 Mapper 接口上，声明该 Mapper 写入的表
+ * Mapper 的 insert/update/delete 方法执行后，事务提交时递增这些表的版本号，使相关接口的 ETag 失效
+ * */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VersionedTable {
+    // 表名
+    String[] value();
+}
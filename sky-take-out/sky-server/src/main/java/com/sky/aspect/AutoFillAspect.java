@@ -33,7 +33,7 @@ public class AutoFillAspect {
     // 前置通知
     @Before("autoFillPoinCut()")
     public void autoFill(JoinPoint joinPoint) {
-        log.info("开始进行公共字段填充...");
+        log.debug("开始进行公共字段填充：{}", joinPoint.getSignature().getName());
 
         /*
         获取到当前被拦截方法上的数据库操作类型：
@@ -98,6 +98,6 @@ public class AutoFillAspect {
             }
         }
 
-        log.info("公共字段填充完毕...");
+        log.debug("公共字段填充完毕");
     }
 }
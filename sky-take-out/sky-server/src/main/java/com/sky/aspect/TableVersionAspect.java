@@ -0,0 +1,40 @@
+package com.sky.aspect;
+
+import com.sky.annotation.VersionedTable;
+import com.sky.cache.TableVersions;
+import com.sky.context.BaseContext;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * 切面类：Mapper 写方法执行成功后递增所写表的版本号（事务提交后生效），用于接口 ETag 失效
+ * */
+@Aspect
+@Component
+@Slf4j
+public class TableVersionAspect {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Pointcut("execution(* com.sky.mapper.*.insert*(..)) || execution(* com.sky.mapper.*.update*(..))"
+            + " || execution(* com.sky.mapper.*.delete*(..))")
+    public void mapperWritePointCut() {
+    }
+
+    @AfterReturning("mapperWritePointCut()")
+    public void bumpVersion(JoinPoint joinPoint) {
+        Class<?> mapperType = joinPoint.getSignature().getDeclaringType();
+        VersionedTable versionedTable = mapperType.getAnnotation(VersionedTable.class);
+        if (versionedTable == null) {
+            return;
+        }
+        log.debug("表写入，递增版本号：{}", String.join(",", versionedTable.value()));
+        tableVersions.bump(BaseContext.getStoreId(), versionedTable.value());
+    }
+}
@@ -0,0 +1,136 @@
+package com.sky.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.constant.CategoryConstant;
+import com.sky.context.BaseContext;
+import com.sky.entity.Category;
+import com.sky.event.MenuChangedEvent;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.json.SerializedPayload;
+import com.sky.mapper.CategoryMapper;
+import com.sky.result.Result;
+import com.sky.warmup.CacheWarmer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分类列表缓存：按门店、类型缓存已经序列化好的 Result 响应体
+ * 菜单变化事件（经发件箱投递到每个节点）到达时清空该门店的缓存；
+ * 同时记录加载时 category 表的版本号，版本号前进后立即重新加载，
+ * 避免事件到达前按新版本号生成的 ETag 配上旧数据被客户端一直缓存；
+ * 版本号复用条件请求拦截器在同一请求中已经读到的值（见 TableVersions），命中缓存时不再访问 Redis
+ * 同一门店、类型的并发未命中合并为一次查询
+ */
+@Component
+@Slf4j
+public class CategoryListCache implements CacheWarmer {
+
+    private static final String ALL_TYPES = "all";
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private SingleFlight<List<Object>, SerializedPayload> singleFlight;
+
+    // 门店 -> 缓存的响应体
+    private final Map<Long, StoreCategories> stores = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        singleFlight = new SingleFlight<>("category-list", meterRegistry);
+    }
+
+    /**
+     * 查询当前门店指定类型的启用分类
+     *
+     * @param type 为空时查询所有类型
+     * @return
+     */
+    public SerializedPayload get(Integer type) {
+        Long storeId = BaseContext.getStoreId();
+        long version = currentVersion(storeId);
+        StoreCategories cached = stores.compute(storeKey(storeId),
+                (key, existing) -> existing == null || existing.version < version ? new StoreCategories(version) : existing);
+        String typeKey = type == null ? ALL_TYPES : type.toString();
+        SerializedPayload payload = cached.payloads.get(typeKey);
+        if (payload != null) {
+            return payload;
+        }
+        // 并发未命中只查询一次；按缓存实例合并，事件或版本号前进后换了新实例的请求不会拿到之前开始的加载结果
+        payload = singleFlight.load(Arrays.asList(cached, typeKey), () -> {
+            List<Category> categories = categoryMapper.selectByType(type);
+            return SerializedPayload.of(objectMapper, Result.success(categories));
+        });
+        SerializedPayload existing = cached.payloads.putIfAbsent(typeKey, payload);
+        return existing == null ? payload : existing;
+    }
+
+    @Override
+    public String name() {
+        return "category-list";
+    }
+
+    /**
+     * 预热用户端、管理端会查询的分类列表：全部类型、菜品分类、套餐分类
+     */
+    @Override
+    public void warmUp() {
+        get(null);
+        get(CategoryConstant.DISH_TYPE);
+        get(CategoryConstant.SETMEAL_TYPE);
+    }
+
+    /**
+     * 整体替换该门店的缓存，事件到达前开始的加载只会写入被丢弃的旧 Map，不会留下旧数据
+     *
+     * @param event
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        stores.compute(storeKey(event.getStoreId()),
+                (key, existing) -> new StoreCategories(existing == null ? 0L : existing.version));
+    }
+
+    // Redis 不可用时只依赖菜单变化事件失效
+    private long currentVersion(Long storeId) {
+        try {
+            return Long.parseLong(tableVersions.current(storeId, "category").get(0));
+        } catch (RuntimeException ex) {
+            log.warn("读取分类表版本号失败：{}", ex.getMessage());
+            return 0L;
+        }
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? 0L : storeId;
+    }
+
+    private static class StoreCategories {
+
+        private final long version;
+
+        // 类型 -> 响应体
+        private final Map<String, SerializedPayload> payloads = new ConcurrentHashMap<>();
+
+        private StoreCategories(long version) {
+            this.version = version;
+        }
+    }
+}
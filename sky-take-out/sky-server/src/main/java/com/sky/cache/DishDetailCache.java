@@ -0,0 +1,87 @@
+package com.sky.cache;
+
+import com.sky.context.BaseContext;
+import com.sky.event.MenuChangedEvent;
+import com.sky.properties.ReadCacheProperties;
+import com.sky.vo.DishVO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 菜品详情缓存：按门店、菜品id缓存 DishVO（菜品 + 分类名称 + 口味）
+ * 同一菜品的并发未命中只查询一次；菜单变化事件到达时失效对应菜品，只涉及分类时失效该门店的全部菜品，
+ * 同时记录加载时 dish、category、dish_flavor 表的版本号，版本号前进后立即重新加载（与 ETag 保持一致）
+ */
+@Component
+@Slf4j
+public class DishDetailCache {
+
+    private static final Long DEFAULT_STORE = 0L;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private ReadCacheProperties readCacheProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private EarlyRefreshCache<String, DishVO> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new EarlyRefreshCache<>("dish-detail", TimeUnit.SECONDS.toMillis(readCacheProperties.getDishTtlSeconds()),
+                readCacheProperties.getEarlyRefreshBeta(), meterRegistry);
+    }
+
+    /**
+     * 查询当前门店的菜品详情，返回的对象由多个请求共享，不能修改
+     *
+     * @param id
+     * @param loader 未命中时的查询
+     * @return
+     */
+    public DishVO get(Long id, Supplier<DishVO> loader) {
+        Long storeId = BaseContext.getStoreId();
+        return cache.get(key(storeId, id), currentVersion(storeId), loader);
+    }
+
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        // 只涉及分类的变化（分类改名、导入菜品等）没有菜品id，分类名称在该门店的菜品详情中都可能出现，整体失效
+        if (event.getDishIds().isEmpty() && !event.getCategoryIds().isEmpty()) {
+            String prefix = storePrefix(event.getStoreId());
+            cache.invalidateIf(key -> key.startsWith(prefix));
+            return;
+        }
+        for (Long dishId : event.getDishIds()) {
+            cache.invalidate(key(event.getStoreId(), dishId));
+        }
+    }
+
+    // Redis 不可用时不比较版本，只依赖菜单变化事件和过期时间失效
+    private String currentVersion(Long storeId) {
+        try {
+            return String.join(",", tableVersions.current(storeId, "dish", "category", "dish_flavor"));
+        } catch (RuntimeException ex) {
+            log.warn("读取菜品表版本号失败：{}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private String key(Long storeId, Long id) {
+        return storePrefix(storeId) + id;
+    }
+
+    private String storePrefix(Long storeId) {
+        return (storeId == null ? DEFAULT_STORE : storeId) + ":";
+    }
+}
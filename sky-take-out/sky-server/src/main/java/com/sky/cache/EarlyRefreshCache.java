@@ -0,0 +1,114 @@
+package com.sky.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 带过期时间的本地读缓存，用于 Service 层的热点读
+ * 1、未命中时通过 SingleFlight 加载，同一个 key 的并发未命中只查询一次数据库
+ * 2、概率提前刷新（XFetch）：越接近过期、加载越慢，越可能由某个请求提前重新加载，
+ *    过期时刻不会有大量请求同时未命中；提前刷新期间其他请求继续读取旧值
+ * 3、调用方可以给每个值附带一个版本（如表版本号），读取时版本不一致视为未命中
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class EarlyRefreshCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    // 按 key + 版本合并，版本已经前进的请求不会拿到按旧版本加载的值
+    private final SingleFlight<Map.Entry<K, String>, Entry<V>> singleFlight;
+
+    private final long ttlMillis;
+
+    private final double beta;
+
+    // 失效代数，加载期间发生失效时加载结果只返回不缓存
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param name          缓存名，作为指标标签
+     * @param ttlMillis     过期时间
+     * @param beta          提前刷新系数，越大越早刷新，为 0 时不提前刷新
+     * @param meterRegistry
+     */
+    public EarlyRefreshCache(String name, long ttlMillis, double beta, MeterRegistry meterRegistry) {
+        this.singleFlight = new SingleFlight<>(name, meterRegistry);
+        this.ttlMillis = ttlMillis;
+        this.beta = beta;
+    }
+
+    /**
+     * 读取缓存，未命中、版本不一致或需要提前刷新时加载
+     *
+     * @param key
+     * @param version 当前版本，为 null 时不比较版本
+     * @param loader
+     * @return
+     */
+    public V get(K key, String version, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && (version == null || version.equals(entry.version)) && !shouldRefresh(entry)) {
+            return entry.value;
+        }
+        return singleFlight.load(new AbstractMap.SimpleImmutableEntry<>(key, version), () -> load(key, version, loader)).value;
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        generation.incrementAndGet();
+        entries.keySet().removeIf(predicate);
+    }
+
+    private Entry<V> load(K key, String version, Supplier<V> loader) {
+        long currentGeneration = generation.get();
+        long start = System.currentTimeMillis();
+        V value = loader.get();
+        long now = System.currentTimeMillis();
+        Entry<V> entry = new Entry<>(value, version, now - start, now + ttlMillis);
+        if (generation.get() == currentGeneration) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    // XFetch：now - delta * beta * ln(rand) >= expireAt 时刷新，ln(rand) <= 0
+    private boolean shouldRefresh(Entry<V> entry) {
+        long now = System.currentTimeMillis();
+        if (now >= entry.expireAt) {
+            return true;
+        }
+        if (beta <= 0 || entry.deltaMillis <= 0) {
+            return false;
+        }
+        double gap = -entry.deltaMillis * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return now + gap >= entry.expireAt;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final String version;
+        // 上次加载耗时
+        private final long deltaMillis;
+        private final long expireAt;
+
+        private Entry(V value, String version, long deltaMillis, long expireAt) {
+            this.value = value;
+            this.version = version;
+            this.deltaMillis = deltaMillis;
+            this.expireAt = expireAt;
+        }
+    }
+}
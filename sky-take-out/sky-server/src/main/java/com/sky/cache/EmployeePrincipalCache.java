@@ -0,0 +1,84 @@
+package com.sky.cache;
+
+import com.sky.context.BaseContext;
+import com.sky.entity.Employee;
+import com.sky.mapper.EmployeeMapper;
+import com.sky.properties.LoginProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 员工登录信息缓存：只缓存登录需要的 id、用户名、姓名、密码哈希、状态、所属门店
+ * 存放在 Redis 中，多个节点共享；修改员工信息、状态、密码后必须调用 evict
+ */
+@Component
+@Slf4j
+public class EmployeePrincipalCache {
+
+    private static final String KEY_PREFIX = "login:principal:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private EmployeeMapper employeeMapper;
+
+    @Autowired
+    private LoginProperties loginProperties;
+
+    /**
+     * 先查缓存，未命中时查询数据库并回填
+     *
+     * @param username
+     * @return 用户名不存在时返回 null
+     */
+    public Employee get(String username) {
+        String key = key(username);
+        Map<Object, Object> cached = stringRedisTemplate.opsForHash().entries(key);
+        //旧版本写入的缓存没有门店字段，当作未命中重新加载
+        if (cached.containsKey("storeId")) {
+            String storeId = (String) cached.get("storeId");
+            return Employee.builder()
+                    .id(Long.valueOf(cached.get("id").toString()))
+                    .username(username)
+                    .name((String) cached.get("name"))
+                    .password((String) cached.get("password"))
+                    .status(Integer.valueOf(cached.get("status").toString()))
+                    .storeId(storeId.isEmpty() ? null : Long.valueOf(storeId))
+                    .build();
+        }
+
+        Employee employee = employeeMapper.getPrincipalByUsername(username);
+        if (employee != null) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("id", employee.getId().toString());
+            fields.put("name", employee.getName() == null ? "" : employee.getName());
+            fields.put("password", employee.getPassword());
+            fields.put("status", employee.getStatus().toString());
+            fields.put("storeId", employee.getStoreId() == null ? "" : employee.getStoreId().toString());
+            stringRedisTemplate.opsForHash().putAll(key, fields);
+            stringRedisTemplate.expire(key, loginProperties.getPrincipalTtlSeconds(), TimeUnit.SECONDS);
+        }
+        return employee;
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            stringRedisTemplate.delete(key(username));
+        }
+    }
+
+    /**
+     * 用户名只在门店内唯一，分库部署时缓存键带上门店id
+     */
+    private String key(String username) {
+        Long storeId = BaseContext.getStoreId();
+        return storeId == null ? KEY_PREFIX + username : KEY_PREFIX + storeId + ":" + username;
+    }
+}
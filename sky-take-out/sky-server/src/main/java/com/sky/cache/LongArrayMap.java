@@ -0,0 +1,133 @@
+package com.sky.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 只读的 long -> long[] 映射：开放寻址，键和值都是基本类型数组，没有 Long 装箱和链表节点
+ * 用于常驻内存的关联索引，创建后不再修改，修改时先 toMap 转成普通 Map，改完再用 of 重新生成
+ * 键为数据库自增id，不能为 0（0 表示空槽）
+ */
+public final class LongArrayMap {
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final LongArrayMap EMPTY_MAP = new LongArrayMap(new long[1], new long[1][], 0);
+
+    private final long[] keys;
+
+    private final long[][] values;
+
+    private final int mask;
+
+    private final int size;
+
+    private LongArrayMap(long[] keys, long[][] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    public static LongArrayMap empty() {
+        return EMPTY_MAP;
+    }
+
+    /**
+     * 由普通 Map 生成，值为空的键不保留
+     *
+     * @param source
+     * @return
+     */
+    public static LongArrayMap of(Map<Long, ? extends Collection<Long>> source) {
+        int size = 0;
+        for (Collection<Long> value : source.values()) {
+            if (!value.isEmpty()) {
+                size++;
+            }
+        }
+        if (size == 0) {
+            return EMPTY_MAP;
+        }
+        // 装载因子不超过 0.5，查找平均一两次探测
+        int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+        long[] keys = new long[capacity];
+        long[][] values = new long[capacity][];
+        int mask = capacity - 1;
+        for (Map.Entry<Long, ? extends Collection<Long>> entry : source.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            long key = entry.getKey();
+            if (key == 0) {
+                throw new IllegalArgumentException("key must not be 0");
+            }
+            long[] value = new long[entry.getValue().size()];
+            int i = 0;
+            for (Long element : entry.getValue()) {
+                value[i++] = element;
+            }
+            int slot = slot(key, mask);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+        return new LongArrayMap(keys, values, size);
+    }
+
+    /**
+     * 键对应的值，不存在时返回空数组，返回的数组不能修改
+     *
+     * @param key
+     * @return
+     */
+    public long[] get(long key) {
+        int slot = slot(key, mask);
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    public int count(long key) {
+        return get(key).length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 转成可修改的普通 Map
+     *
+     * @return
+     */
+    public Map<Long, Set<Long>> toMap() {
+        Map<Long, Set<Long>> map = new HashMap<>(size * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == 0) {
+                continue;
+            }
+            Set<Long> value = new HashSet<>(values[i].length * 2);
+            for (long element : values[i]) {
+                value.add(element);
+            }
+            map.put(keys[i], value);
+        }
+        return map;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
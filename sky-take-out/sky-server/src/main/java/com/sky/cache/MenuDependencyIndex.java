@@ -0,0 +1,251 @@
+package com.sky.cache;
+
+import com.sky.context.BaseContext;
+import com.sky.entity.Dish;
+import com.sky.entity.Setmeal;
+import com.sky.entity.SetmealDish;
+import com.sky.event.MenuChangedEvent;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.warmup.CacheWarmer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 菜单关联索引：按门店常驻内存的 菜品 <-> 套餐、分类 -> 菜品/套餐 关系
+ * 索引只是参考：有关联时删除可以直接拒绝，不查数据库；没有关联时不能据此放行，
+ * 其他节点刚写入的关系可能还没同步过来，删除前仍要在事务内查一次数据库
+ * 1、启动预热时加载默认门店，其他门店首次访问时加载（3 条 SQL）
+ * 2、菜单变化事件到达时，只重新查询事件涉及的菜品、分类，用查询结果覆盖索引中的对应部分；
+ *    结果只取决于数据库当前状态，同一事件重复投递或乱序到达都不会产生错误的关系
+ * 3、索引是不可变快照，更新时整体替换，读取不加锁
+ */
+@Component
+@Slf4j
+public class MenuDependencyIndex implements CacheWarmer {
+
+    private static final Long DEFAULT_STORE = 0L;
+
+    @Autowired
+    private DishMapper dishMapper;
+
+    @Autowired
+    private SetmealMapper setmealMapper;
+
+    private final Map<Long, StoreIndex> stores = new ConcurrentHashMap<>();
+
+    /**
+     * 菜品是否被套餐关联
+     *
+     * @param dishId
+     * @return
+     */
+    public boolean isDishInSetmeal(Long dishId) {
+        return snapshot().dishSetmeals.count(dishId) > 0;
+    }
+
+    /**
+     * 关联了该菜品的套餐id，返回的数组不能修改
+     *
+     * @param dishId
+     * @return
+     */
+    public long[] setmealsOfDish(Long dishId) {
+        return snapshot().dishSetmeals.get(dishId);
+    }
+
+    /**
+     * 套餐包含的菜品id，返回的数组不能修改
+     *
+     * @param setmealId
+     * @return
+     */
+    public long[] dishesOfSetmeal(Long setmealId) {
+        return snapshot().setmealDishes.get(setmealId);
+    }
+
+    /**
+     * 分类下的菜品数量
+     *
+     * @param categoryId
+     * @return
+     */
+    public int countDishes(Long categoryId) {
+        return snapshot().categoryDishes.count(categoryId);
+    }
+
+    /**
+     * 分类下的套餐数量
+     *
+     * @param categoryId
+     * @return
+     */
+    public int countSetmeals(Long categoryId) {
+        return snapshot().categorySetmeals.count(categoryId);
+    }
+
+    @Override
+    public String name() {
+        return "menu-dependency-index";
+    }
+
+    @Override
+    public void warmUp() {
+        snapshot();
+    }
+
+    /**
+     * 增量更新，更新失败时丢弃该门店的索引，下次访问全量加载
+     *
+     * @param event
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        StoreIndex index = stores.get(storeKey(event.getStoreId()));
+        if (index == null) {
+            return;
+        }
+        synchronized (index) {
+            if (index.snapshot == null) {
+                return;
+            }
+            // 消费线程没有请求上下文，按事件中的门店查询
+            BaseContext.setStoreId(event.getStoreId());
+            try {
+                index.snapshot = update(index.snapshot, event.getDishIds(), event.getCategoryIds());
+            } catch (Exception ex) {
+                log.error("菜单关联索引增量更新失败，等待下次访问时全量加载", ex);
+                index.snapshot = null;
+            } finally {
+                BaseContext.clear();
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        StoreIndex index = stores.computeIfAbsent(storeKey(BaseContext.getStoreId()), key -> new StoreIndex());
+        Snapshot snapshot = index.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (index) {
+            if (index.snapshot == null) {
+                index.snapshot = load();
+            }
+            return index.snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        long start = System.currentTimeMillis();
+        Map<Long, Set<Long>> categoryDishes = new HashMap<>();
+        for (Dish dish : dishMapper.selectCategoryRefs(null, null)) {
+            put(categoryDishes, dish.getCategoryId(), dish.getId());
+        }
+        Map<Long, Set<Long>> dishSetmeals = new HashMap<>();
+        Map<Long, Set<Long>> setmealDishes = new HashMap<>();
+        addLinks(setmealMapper.selectDishRefs(null), dishSetmeals, setmealDishes);
+        Map<Long, Set<Long>> categorySetmeals = new HashMap<>();
+        for (Setmeal setmeal : setmealMapper.selectCategoryRefs(null)) {
+            put(categorySetmeals, setmeal.getCategoryId(), setmeal.getId());
+        }
+        Snapshot snapshot = new Snapshot(dishSetmeals, setmealDishes, categoryDishes, categorySetmeals);
+        log.info("菜单关联索引加载完成，门店：{}，菜品：{}，套餐：{}，耗时：{}ms", BaseContext.getStoreId(),
+                categoryDishes.values().stream().mapToInt(Set::size).sum(), snapshot.setmealDishes.size(),
+                System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    /**
+     * 用数据库中的当前状态覆盖受影响的部分：事件中的菜品、事件中分类下的菜品和套餐
+     */
+    private Snapshot update(Snapshot snapshot, Collection<Long> dishIds, Collection<Long> categoryIds) {
+        if (dishIds.isEmpty() && categoryIds.isEmpty()) {
+            return snapshot;
+        }
+        List<Dish> dishes = dishMapper.selectCategoryRefs(dishIds, categoryIds);
+        Set<Long> affected = new HashSet<>(dishIds);
+        for (Dish dish : dishes) {
+            affected.add(dish.getId());
+        }
+        List<SetmealDish> links = affected.isEmpty() ? Collections.emptyList() : setmealMapper.selectDishRefs(affected);
+        List<Setmeal> setmeals = categoryIds.isEmpty() ? Collections.emptyList() : setmealMapper.selectCategoryRefs(categoryIds);
+
+        // 分类 -> 菜品：先移除受影响的菜品（可能换了分类或已删除）和事件中分类的全部菜品，再按查询结果加回
+        Map<Long, Set<Long>> categoryDishes = snapshot.categoryDishes.toMap();
+        categoryDishes.keySet().removeAll(categoryIds);
+        categoryDishes.values().forEach(ids -> ids.removeAll(affected));
+        for (Dish dish : dishes) {
+            put(categoryDishes, dish.getCategoryId(), dish.getId());
+        }
+
+        // 菜品 <-> 套餐：替换受影响菜品的全部关系
+        Map<Long, Set<Long>> dishSetmeals = snapshot.dishSetmeals.toMap();
+        Map<Long, Set<Long>> setmealDishes = snapshot.setmealDishes.toMap();
+        dishSetmeals.keySet().removeAll(affected);
+        setmealDishes.values().forEach(ids -> ids.removeAll(affected));
+        addLinks(links, dishSetmeals, setmealDishes);
+
+        // 分类 -> 套餐：替换事件中分类的套餐
+        Map<Long, Set<Long>> categorySetmeals = snapshot.categorySetmeals.toMap();
+        categorySetmeals.keySet().removeAll(categoryIds);
+        Set<Long> movedSetmeals = new HashSet<>();
+        for (Setmeal setmeal : setmeals) {
+            movedSetmeals.add(setmeal.getId());
+        }
+        categorySetmeals.values().forEach(ids -> ids.removeAll(movedSetmeals));
+        for (Setmeal setmeal : setmeals) {
+            put(categorySetmeals, setmeal.getCategoryId(), setmeal.getId());
+        }
+
+        return new Snapshot(dishSetmeals, setmealDishes, categoryDishes, categorySetmeals);
+    }
+
+    private void addLinks(List<SetmealDish> links, Map<Long, Set<Long>> dishSetmeals, Map<Long, Set<Long>> setmealDishes) {
+        for (SetmealDish link : links) {
+            put(dishSetmeals, link.getDishId(), link.getSetmealId());
+            put(setmealDishes, link.getSetmealId(), link.getDishId());
+        }
+    }
+
+    // 没有分类等外键为空的行不进索引
+    private void put(Map<Long, Set<Long>> map, Long key, Long value) {
+        if (key != null && value != null) {
+            map.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+        }
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? DEFAULT_STORE : storeId;
+    }
+
+    private static class StoreIndex {
+        private volatile Snapshot snapshot;
+    }
+
+    private static class Snapshot {
+        private final LongArrayMap dishSetmeals;
+        private final LongArrayMap setmealDishes;
+        private final LongArrayMap categoryDishes;
+        private final LongArrayMap categorySetmeals;
+
+        private Snapshot(Map<Long, Set<Long>> dishSetmeals, Map<Long, Set<Long>> setmealDishes,
+                         Map<Long, Set<Long>> categoryDishes, Map<Long, Set<Long>> categorySetmeals) {
+            this.dishSetmeals = LongArrayMap.of(dishSetmeals);
+            this.setmealDishes = LongArrayMap.of(setmealDishes);
+            this.categoryDishes = LongArrayMap.of(categoryDishes);
+            this.categorySetmeals = LongArrayMap.of(categorySetmeals);
+        }
+    }
+}
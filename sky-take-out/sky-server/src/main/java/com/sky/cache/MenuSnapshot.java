@@ -0,0 +1,21 @@
+package com.sky.cache;
+
+import com.sky.json.SerializedPayload;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 菜单快照：整份菜单预先序列化好的 JSON 及其 gzip 压缩版本
+ * 构建完成后不再修改，数组直接共享给所有请求，调用方不能修改其内容
+ */
+@Getter
+public class MenuSnapshot extends SerializedPayload {
+
+    private final LocalDateTime buildTime;
+
+    public MenuSnapshot(byte[] json) {
+        super(json);
+        this.buildTime = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,253 @@
+package com.sky.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.constant.CategoryConstant;
+import com.sky.context.BaseContext;
+import com.sky.entity.Category;
+import com.sky.entity.Dish;
+import com.sky.entity.DishFlavor;
+import com.sky.event.MenuChangedEvent;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.mapper.CategoryMapper;
+import com.sky.mapper.DishFlavorMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.properties.ImageProperties;
+import com.sky.utils.ImageVariantResolver;
+import com.sky.warmup.CacheWarmer;
+import com.sky.vo.DishVO;
+import com.sky.vo.MenuCategoryVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 用户端菜单快照构建器：分类 → 菜品 → 口味 整棵树按门店预先组装、序列化
+ * 1、首次访问时全量构建（3 条 SQL），之后只读快照，不再访问数据库
+ * 2、菜品、口味、分类变化时，只重新查询并序列化受影响的分类，其余分类复用已序列化的片段
+ */
+@Component
+@Slf4j
+public class MenuSnapshotBuilder implements CacheWarmer {
+
+    // 与 Result.success(data) 序列化结果保持一致
+    private static final byte[] PREFIX = "{\"code\":1,\"msg\":null,\"data\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+    private static final Long DEFAULT_STORE = 0L;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private DishMapper dishMapper;
+
+    @Autowired
+    private DishFlavorMapper dishFlavorMapper;
+
+    @Autowired
+    private ImageVariantResolver imageVariantResolver;
+
+    @Autowired
+    private ImageProperties imageProperties;
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private final Map<Long, StoreMenu> stores = new ConcurrentHashMap<>();
+
+    /**
+     * 获取当前门店的菜单快照
+     *
+     * @return
+     */
+    public MenuSnapshot get() {
+        StoreMenu menu = stores.computeIfAbsent(storeKey(BaseContext.getStoreId()), key -> new StoreMenu());
+        MenuSnapshot snapshot = menu.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (menu) {
+            if (menu.snapshot == null) {
+                rebuild(menu, null, null);
+            }
+            return menu.snapshot;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "menu-snapshot";
+    }
+
+    /**
+     * 预热起售菜品及口味组成的菜单快照
+     */
+    @Override
+    public void warmUp() {
+        get();
+    }
+
+    /**
+     * 增量重建，事件由发件箱消费线程按顺序同步发布，重建失败时丢弃快照，下次访问全量构建
+     *
+     * @param event
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        StoreMenu menu = stores.get(storeKey(event.getStoreId()));
+        if (menu == null) {
+            return;
+        }
+        synchronized (menu) {
+            if (menu.snapshot == null) {
+                return;
+            }
+            // 消费线程没有请求上下文，按事件中的门店查询（分库部署时据此路由到门店所在的分片）
+            BaseContext.setStoreId(event.getStoreId());
+            try {
+                rebuild(menu, event.getDishIds(), event.getCategoryIds());
+            } catch (Exception ex) {
+                log.error("菜单快照增量重建失败，等待下次访问时全量构建", ex);
+                menu.snapshot = null;
+                menu.fragments.clear();
+            } finally {
+                BaseContext.clear();
+            }
+        }
+    }
+
+    /**
+     * 重建快照，dishIds 为空时全量重建
+     */
+    private void rebuild(StoreMenu menu, Collection<Long> dishIds, Collection<Long> categoryIds) {
+        long start = System.currentTimeMillis();
+        boolean full = dishIds == null;
+        List<Category> categories = categoryMapper.selectByType(CategoryConstant.DISH_TYPE);
+
+        Map<Long, Fragment> fragments = new LinkedHashMap<>();
+        if (full) {
+            Map<Long, List<Dish>> dishes = dishMapper.selectEnabled(null).stream()
+                    .collect(Collectors.groupingBy(Dish::getCategoryId));
+            Map<Long, List<DishFlavor>> flavors = dishFlavorMapper.selectEnabled(null).stream()
+                    .collect(Collectors.groupingBy(DishFlavor::getDishId));
+            for (Category category : categories) {
+                fragments.put(category.getId(), buildFragment(category, dishes.get(category.getId()), flavors));
+            }
+        } else {
+            // 受影响的分类：事件中的分类 + 变化菜品原先所在的分类
+            Set<Long> dirty = new HashSet<>(categoryIds);
+            for (Long dishId : dishIds) {
+                Long categoryId = menu.dishCategory.get(dishId);
+                if (categoryId != null) {
+                    dirty.add(categoryId);
+                }
+            }
+            for (Category category : categories) {
+                Fragment fragment = menu.fragments.get(category.getId());
+                if (fragment == null || dirty.contains(category.getId())) {
+                    List<Dish> dishes = dishMapper.selectEnabled(category.getId());
+                    Map<Long, List<DishFlavor>> flavors = dishes.isEmpty() ? Collections.emptyMap()
+                            : dishFlavorMapper.selectByDishIds(dishes.stream().map(Dish::getId).collect(Collectors.toList())).stream()
+                            .collect(Collectors.groupingBy(DishFlavor::getDishId));
+                    fragment = buildFragment(category, dishes, flavors);
+                }
+                fragments.put(category.getId(), fragment);
+            }
+        }
+
+        Map<Long, Long> dishCategory = new HashMap<>();
+        fragments.forEach((categoryId, fragment) -> {
+            for (long dishId : fragment.dishIds) {
+                dishCategory.put(dishId, categoryId);
+            }
+        });
+
+        menu.fragments.clear();
+        menu.fragments.putAll(fragments);
+        menu.dishCategory = dishCategory;
+        menu.snapshot = assemble(fragments.values());
+        log.info("菜单快照{}构建完成，分类数：{}，耗时：{}ms", full ? "全量" : "增量", fragments.size(), System.currentTimeMillis() - start);
+    }
+
+    private Fragment buildFragment(Category category, List<Dish> dishes, Map<Long, List<DishFlavor>> flavors) {
+        List<DishVO> dishVOs = new ArrayList<>();
+        if (dishes != null) {
+            for (Dish dish : dishes) {
+                DishVO dishVO = new DishVO();
+                BeanUtils.copyProperties(dish, dishVO);
+                dishVO.setCategoryName(category.getName());
+                dishVO.setThumbnail(imageVariantResolver.resolve(dish.getImage(), imageProperties.getListWidth()));
+                List<DishFlavor> dishFlavors = flavors.get(dish.getId());
+                if (dishFlavors != null) {
+                    dishVO.setFlavors(dishFlavors);
+                }
+                dishVOs.add(dishVO);
+            }
+        }
+        MenuCategoryVO categoryVO = MenuCategoryVO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .sort(category.getSort())
+                .dishes(dishVOs)
+                .build();
+        try {
+            return new Fragment(objectMapper.writeValueAsBytes(categoryVO),
+                    dishVOs.stream().mapToLong(DishVO::getId).toArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("菜单序列化失败", e);
+        }
+    }
+
+    private MenuSnapshot assemble(Collection<Fragment> fragments) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write(PREFIX, 0, PREFIX.length);
+        boolean first = true;
+        for (Fragment fragment : fragments) {
+            if (!first) {
+                json.write(',');
+            }
+            json.write(fragment.json, 0, fragment.json.length);
+            first = false;
+        }
+        json.write(SUFFIX, 0, SUFFIX.length);
+        return new MenuSnapshot(json.toByteArray());
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? DEFAULT_STORE : storeId;
+    }
+
+    /**
+     * 单个门店的菜单：按分类拆分的序列化片段，读写都在 StoreMenu 对象锁内完成
+     */
+    private static class StoreMenu {
+        private volatile MenuSnapshot snapshot;
+        private final Map<Long, Fragment> fragments = new LinkedHashMap<>();
+        private Map<Long, Long> dishCategory = new HashMap<>();
+    }
+
+    private static class Fragment {
+        private final byte[] json;
+        private final long[] dishIds;
+
+        private Fragment(byte[] json, long[] dishIds) {
+            this.json = json;
+            this.dishIds = dishIds;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.sky.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.context.BaseContext;
+import com.sky.event.MenuChangedEvent;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.json.SerializedPayload;
+import com.sky.mapper.SetmealMapper;
+import com.sky.properties.ImageProperties;
+import com.sky.properties.SetmealProperties;
+import com.sky.result.Result;
+import com.sky.utils.ImageVariantResolver;
+import com.sky.vo.DishItemVO;
+import com.sky.vo.SetmealComboVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户端套餐展示缓存：按门店、分类缓存套餐及其菜品（一条关联查询加载整个分类），响应体预先序列化
+ * 维护 菜品id -> 套餐id 的反向索引，菜品变化事件到达时只失效包含这些菜品的套餐所在的分类
+ */
+@Component
+@Slf4j
+public class SetmealComboCache {
+
+    private static final Long DEFAULT_STORE = 0L;
+
+    @Autowired
+    private SetmealMapper setmealMapper;
+
+    @Autowired
+    private ImageVariantResolver imageVariantResolver;
+
+    @Autowired
+    private ImageProperties imageProperties;
+
+    @Autowired
+    private SetmealProperties setmealProperties;
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private final SerializedPayload emptyItems = SerializedPayload.of(objectMapper, Result.success(Collections.emptyList()));
+
+    private final Map<Long, StoreCombos> stores = new ConcurrentHashMap<>();
+
+    /**
+     * 分类下起售的套餐及其菜品
+     *
+     * @param categoryId
+     * @return Result<List<SetmealComboVO>> 的序列化结果
+     */
+    public SerializedPayload list(Long categoryId) {
+        return load(storeCombos(), categoryId).list;
+    }
+
+    /**
+     * 套餐包含的菜品
+     *
+     * @param setmealId
+     * @return Result<List<DishItemVO>> 的序列化结果，套餐不存在或已停售时为空列表
+     */
+    public SerializedPayload dishItems(Long setmealId) {
+        StoreCombos combos = storeCombos();
+        Long categoryId = combos.setmealCategory.get(setmealId);
+        if (categoryId == null) {
+            categoryId = setmealMapper.selectCategoryId(setmealId);
+        }
+        if (categoryId != null) {
+            SerializedPayload items = load(combos, categoryId).dishItems.get(setmealId);
+            if (items != null) {
+                return items;
+            }
+        }
+        return emptyItems;
+    }
+
+    /**
+     * 失效受影响的分类：事件中的分类，以及通过反向索引找到的包含变化菜品的套餐所在分类
+     *
+     * @param event
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        StoreCombos combos = stores.get(storeKey(event.getStoreId()));
+        if (combos == null) {
+            return;
+        }
+        Set<Long> dirty = new HashSet<>(event.getCategoryIds());
+        for (Long dishId : event.getDishIds()) {
+            Set<Long> setmealIds = combos.dishSetmeals.get(dishId);
+            if (setmealIds == null) {
+                continue;
+            }
+            for (Long setmealId : setmealIds) {
+                Long categoryId = combos.setmealCategory.get(setmealId);
+                if (categoryId != null) {
+                    dirty.add(categoryId);
+                }
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        // 先推进代数再删除，删除前开始的加载不会把旧数据放回缓存
+        combos.generation.incrementAndGet();
+        combos.categories.keySet().removeAll(dirty);
+        log.debug("套餐缓存失效，分类：{}", dirty);
+    }
+
+    private CategoryCombos load(StoreCombos combos, Long categoryId) {
+        CategoryCombos cached = combos.categories.get(categoryId);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.loadTime < TimeUnit.MINUTES.toMillis(setmealProperties.getCacheTtlMinutes())) {
+            return cached;
+        }
+
+        long generation = combos.generation.get();
+        List<SetmealComboVO> setmeals = setmealMapper.selectCombosByCategoryId(categoryId);
+        Map<Long, SerializedPayload> dishItems = new HashMap<>();
+        for (SetmealComboVO setmeal : setmeals) {
+            setmeal.setThumbnail(imageVariantResolver.resolve(setmeal.getImage(), imageProperties.getListWidth()));
+            dishItems.put(setmeal.getId(), SerializedPayload.of(objectMapper, Result.success(setmeal.getDishes())));
+            combos.setmealCategory.put(setmeal.getId(), categoryId);
+            for (DishItemVO dish : setmeal.getDishes()) {
+                combos.dishSetmeals.computeIfAbsent(dish.getDishId(), key -> ConcurrentHashMap.newKeySet()).add(setmeal.getId());
+            }
+        }
+        CategoryCombos loaded = new CategoryCombos(SerializedPayload.of(objectMapper, Result.success(setmeals)), dishItems, now);
+        // 加载期间有失效事件时本次结果只返回不缓存
+        if (combos.generation.get() == generation) {
+            combos.categories.put(categoryId, loaded);
+        }
+        return loaded;
+    }
+
+    private StoreCombos storeCombos() {
+        return stores.computeIfAbsent(storeKey(BaseContext.getStoreId()), key -> new StoreCombos());
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? DEFAULT_STORE : storeId;
+    }
+
+    private static class StoreCombos {
+        // 分类 -> 该分类的套餐
+        private final Map<Long, CategoryCombos> categories = new ConcurrentHashMap<>();
+        // 反向索引：菜品id -> 包含该菜品的套餐id，只增不减，多余的项只会导致多失效一次
+        private final Map<Long, Set<Long>> dishSetmeals = new ConcurrentHashMap<>();
+        // 套餐id -> 分类id
+        private final Map<Long, Long> setmealCategory = new ConcurrentHashMap<>();
+        // 失效代数
+        private final AtomicLong generation = new AtomicLong();
+    }
+
+    private static class CategoryCombos {
+        private final SerializedPayload list;
+        private final Map<Long, SerializedPayload> dishItems;
+        private final long loadTime;
+
+        private CategoryCombos(SerializedPayload list, Map<Long, SerializedPayload> dishItems, long loadTime) {
+            this.list = list;
+            this.dishItems = dishItems;
+            this.loadTime = loadTime;
+        }
+    }
+}
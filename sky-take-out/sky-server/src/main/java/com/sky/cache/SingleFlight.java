@@ -0,0 +1,85 @@
+package com.sky.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 合并并发加载：同一个 key 同时只执行一次加载，其他调用方等待并共享这次加载的结果（或异常）
+ * 加载在第一个调用方的线程中执行，使用该线程的请求上下文，key 中需要包含门店等影响结果的信息
+ * 只合并正在进行的加载，加载结束后立即移除，不缓存结果
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+
+    private final Counter coalesced;
+
+    /**
+     * @param name          名称，作为指标的 name 标签
+     * @param meterRegistry 记录实际加载次数（cache.singleflight.loads）和被合并的调用次数（cache.singleflight.coalesced）
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = Counter.builder("cache.singleflight.loads")
+                .description("实际执行的加载次数")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("cache.singleflight.coalesced")
+                .description("等待其他调用方的加载结果、没有自己加载的调用次数")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 加载 key 对应的值，已有相同 key 的加载在进行时等待其结果
+     *
+     * @param key
+     * @param loader
+     * @return
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    // 等待方收到与加载方相同的异常
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.sky.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按门店维护的表版本号，存放在 Redis Hash table:version:{storeId} 中，字段为表名
+ * 写入在事务提交后才递增版本号，读到新版本号时数据一定已经可见；
+ * 提交与递增之间读到的是旧版本号配新数据，下一次请求会因版本号变化重新返回 200，不会把旧数据固定在客户端
+ * 同一个请求内读到的版本号记在请求属性中：条件请求拦截器生成 ETag 时读过的表，缓存命中时直接复用，
+ * 不再访问 Redis，缓存比较的版本号与 ETag 也一定一致（只有 GET 请求读取版本号，请求内不会再递增）
+ */
+@Component
+@Slf4j
+public class TableVersions {
+
+    private static final String KEY_PREFIX = "table:version:";
+
+    private static final Long DEFAULT_STORE = 0L;
+
+    private static final String REQUEST_ATTRIBUTE = TableVersions.class.getName() + ".versions";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 查询当前门店若干张表的版本号，一次 HMGET 完成，未写入过的表版本号为 0
+     * 当前请求已经读过这些表时直接返回之前的结果
+     *
+     * @param storeId
+     * @param tables
+     * @return 与 tables 顺序一致的版本号
+     */
+    public List<String> current(Long storeId, String... tables) {
+        String key = key(storeId);
+        Map<String, String> seen = requestVersions();
+        if (seen != null) {
+            List<String> versions = new ArrayList<>(tables.length);
+            for (String table : tables) {
+                String version = seen.get(key + '|' + table);
+                if (version == null) {
+                    break;
+                }
+                versions.add(version);
+            }
+            if (versions.size() == tables.length) {
+                return versions;
+            }
+        }
+
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(key, Arrays.<Object>asList(tables));
+        List<String> versions = new ArrayList<>(tables.length);
+        for (int i = 0; i < tables.length; i++) {
+            Object value = values.get(i);
+            versions.add(value == null ? "0" : value.toString());
+            if (seen != null) {
+                seen.put(key + '|' + tables[i], versions.get(i));
+            }
+        }
+        return versions;
+    }
+
+    // 当前请求已读到的版本号，键为 Hash 键|表名；不在请求线程中（预热、事件消费）时返回 null
+    @SuppressWarnings("unchecked")
+    private Map<String, String> requestVersions() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, String> seen = (Map<String, String>) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (seen == null) {
+            seen = new HashMap<>();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, seen, RequestAttributes.SCOPE_REQUEST);
+        }
+        return seen;
+    }
+
+    /**
+     * 递增表版本号：处于事务中时登记到事务提交后执行，同一事务内重复写入同一张表只递增一次
+     *
+     * @param storeId
+     * @param tables
+     */
+    public void bump(Long storeId, String... tables) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(Collections.singleton(key(storeId) + '|' + String.join("|", tables)));
+            return;
+        }
+        PendingBumps pending = (PendingBumps) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingBumps();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        for (String table : tables) {
+            pending.entries.add(key(storeId) + '|' + table);
+        }
+    }
+
+    // entry 格式：key|table1|table2...，一次管道提交所有递增
+    private void increment(Set<String> entries) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String entry : entries) {
+                    String[] parts = entry.split("\\|");
+                    byte[] key = parts[0].getBytes(StandardCharsets.UTF_8);
+                    for (int i = 1; i < parts.length; i++) {
+                        connection.hashCommands().hIncrBy(key, parts[i].getBytes(StandardCharsets.UTF_8), 1);
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            // 版本号没有递增时客户端会继续拿到 304，记录下来便于排查
+            log.error("表版本号递增失败：{}", entries, ex);
+        }
+    }
+
+    private String key(Long storeId) {
+        return KEY_PREFIX + (storeId == null ? DEFAULT_STORE : storeId);
+    }
+
+    private class PendingBumps implements TransactionSynchronization {
+
+        private final Set<String> entries = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            increment(entries);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TableVersions.this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.sky.config;
+
+import com.sky.context.ContextTaskDecorator;
+import com.sky.properties.ImageProperties;
+import com.sky.properties.LoginProperties;
+import com.sky.properties.UploadProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 配置类，线程池相关组件
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class ExecutorConfiguration {
+
+    /**
+     * 请求上下文传递的任务装饰器
+     * TaskExecutorBuilder 会应用容器中的 TaskDecorator，下面用它创建的 applicationTaskExecutor（@Async 等）因此带上该装饰器；
+     * 容器中有自定义线程池时 Spring Boot 不再自动创建 applicationTaskExecutor，自定义线程池需自行 setTaskDecorator
+     * 或用 BaseContext.propagating 包装
+     *
+     * @return
+     */
+    @Bean
+    public TaskDecorator contextTaskDecorator() {
+        log.info("注册请求上下文传递的任务装饰器...");
+        return new ContextTaskDecorator();
+    }
+
+    /**
+     * 通用线程池（@Async 默认使用名为 taskExecutor 的线程池，项目中的 @Async 都显式写明 applicationTaskExecutor）
+     * 容器中定义了其他线程池后，Spring Boot 不再自动创建 applicationTaskExecutor，这里用它的 builder 显式创建，
+     * 保留 spring.task.execution 配置项和上下文装饰器
+     *
+     * @param builder
+     * @return
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * 密码校验专用的有界线程池：哈希计算是 CPU 密集型，单独隔离，避免登录高峰占满请求线程
+     * 队列满时直接拒绝（AbortPolicy），由登录接口返回“登录繁忙”
+     *
+     * @param loginProperties
+     * @param contextTaskDecorator
+     * @return
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(LoginProperties loginProperties, TaskDecorator contextTaskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(loginProperties.getHashPoolSize());
+        executor.setMaxPoolSize(loginProperties.getHashPoolSize());
+        executor.setQueueCapacity(loginProperties.getHashQueueCapacity());
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setTaskDecorator(contextTaskDecorator);
+        return executor;
+    }
+
+    /**
+     * 图片处理线程池：生成缩略图并上传，队列满时由提交线程自己执行（背压），保证缩略图不会丢失
+     *
+     * @param imageProperties
+     * @param contextTaskDecorator
+     * @return
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageProcessExecutor(ImageProperties imageProperties, TaskDecorator contextTaskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageProperties.getWorkerPoolSize());
+        executor.setMaxPoolSize(imageProperties.getWorkerPoolSize());
+        executor.setQueueCapacity(imageProperties.getWorkerQueueCapacity());
+        executor.setThreadNamePrefix("image-process-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(contextTaskDecorator);
+        return executor;
+    }
+
+    /**
+     * OSS 异步上传线程池：有界队列，队列满时拒绝（AbortPolicy），由上传接口退回同步上传
+     * 关闭时最多等待正在上传的文件 30 秒，未完成的文件留在暂存目录，重启后继续上传
+     *
+     * @param uploadProperties
+     * @param contextTaskDecorator
+     * @return
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ossTransferExecutor(UploadProperties uploadProperties, TaskDecorator contextTaskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadProperties.getWorkerCount());
+        executor.setMaxPoolSize(uploadProperties.getWorkerCount());
+        executor.setQueueCapacity(uploadProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("oss-transfer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setTaskDecorator(contextTaskDecorator);
+        return executor;
+    }
+}
@@ -0,0 +1,35 @@
+package com.sky.config;
+
+import com.sky.warmup.CacheWarmer;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * 配置类，spring.main.lazy-initialization 开启时（prod 环境）仍需在启动时创建的 Bean
+ * 1、带 @Scheduled 方法的 Bean：定时任务只在 Bean 创建时注册，延迟初始化且没有被注入时任务永远不会执行
+ * 2、缓存预热：预热本身就是为了在就绪前完成加载
+ * */
+@Configuration
+public class LazyInitializationConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) ->
+                CacheWarmer.class.isAssignableFrom(beanType) || hasScheduledMethod(beanType);
+    }
+
+    private static boolean hasScheduledMethod(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> found.set(true),
+                method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, Schedules.class));
+        return found.get();
+    }
+}
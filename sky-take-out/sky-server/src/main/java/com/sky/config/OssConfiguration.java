@@ -1,11 +1,16 @@
 package com.sky.config;
 
 import com.sky.properties.AliOssProperties;
+import com.sky.properties.ImageProperties;
+import com.sky.upload.ImageVariantRegistry;
 import com.sky.utils.AliOssUtil;
+import com.sky.utils.ImageVariantResolver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.imageio.ImageIO;
+
 
 /*
  * 配置类，用于创建 AliOssUtil 对象
@@ -14,7 +19,7 @@ import org.springframework.context.annotation.Configuration;
 @Slf4j
 public class OssConfiguration {
 
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public AliOssUtil aliOssUtil(AliOssProperties aliOssProperties) {
         log.info("开始创建阿里云文件上传工具类对象：{}",aliOssProperties);
         return new AliOssUtil(aliOssProperties.getEndpoint(),
@@ -22,4 +27,16 @@ public class OssConfiguration {
                 aliOssProperties.getAccessKeySecret(),
                 aliOssProperties.getBucketName());
     }
+
+    @Bean
+    public ImageVariantResolver imageVariantResolver(ImageProperties imageProperties, ImageVariantRegistry imageVariantRegistry) {
+        String format = imageProperties.getThumbnailFormat();
+        // JDK 自带的 ImageIO 没有 webp 编码器，需要引入插件（如 webp-imageio）才会生效
+        if (!ImageIO.getImageWritersByFormatName(format).hasNext()) {
+            log.warn("没有可用的 {} 图片编码器，缩略图改用 jpg 格式", format);
+            format = "jpg";
+        }
+        log.info("缩略图尺寸：{}，格式：{}", imageProperties.getThumbnailWidths(), format);
+        return new ImageVariantResolver(imageProperties.getThumbnailWidths(), format, imageVariantRegistry::isReady);
+    }
 }
@@ -0,0 +1,21 @@
+package com.sky.config;
+
+import com.sky.properties.LoginProperties;
+import com.sky.utils.PasswordUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * 配置类，用于创建 PasswordUtil 对象
+ * */
+@Configuration
+@Slf4j
+public class PasswordConfiguration {
+
+    @Bean
+    public PasswordUtil passwordUtil(LoginProperties loginProperties) {
+        log.info("开始创建密码加密工具类对象，迭代次数：{}", loginProperties.getHashIterations());
+        return new PasswordUtil(loginProperties.getHashIterations());
+    }
+}
@@ -0,0 +1,62 @@
+package com.sky.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.sky.properties.ShardProperties;
+import com.sky.shard.ShardRouter;
+import com.sky.shard.ShardRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 配置类，按门店分库（sky.shard.enabled=true 时生效）
+ * 定义 DataSource 后 Druid 的自动配置不再创建数据源，各分片在这里按 spring.datasource.druid 的配置创建
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sky.shard", name = "enabled", havingValue = "true")
+@Slf4j
+public class ShardDataSourceConfiguration {
+
+    private static final String DRUID_PREFIX = "spring.datasource.druid";
+    private static final String SHARD_PREFIX = "sky.shard.shards.";
+
+    @Bean
+    public ShardRouter shardRouter(ShardProperties shardProperties) {
+        return new ShardRouter(shardProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(Environment environment, ShardProperties shardProperties, ShardRouter shardRouter) {
+        Binder binder = Binder.get(environment);
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(shardProperties.getDefaultShard(), createShard(binder, shardProperties.getDefaultShard(), null));
+        for (String name : shardProperties.getShards().keySet()) {
+            shards.put(name, createShard(binder, name, SHARD_PREFIX + name));
+        }
+        log.info("开始创建分片路由数据源，分片：{}", shards.keySet());
+        return new ShardRoutingDataSource(shardRouter, shards);
+    }
+
+    /**
+     * 先绑定 spring.datasource.druid 的公共配置，再用分片自己的配置覆盖
+     */
+    private DruidDataSource createShard(Binder binder, String name, String prefix) {
+        DruidDataSource dataSource = new DruidDataSource();
+        binder.bind(DRUID_PREFIX, Bindable.ofInstance(dataSource));
+        if (prefix != null) {
+            binder.bind(prefix, Bindable.ofInstance(dataSource));
+        }
+        dataSource.setName(name);
+        return dataSource;
+    }
+}
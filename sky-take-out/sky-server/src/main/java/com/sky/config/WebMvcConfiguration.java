@@ -1,6 +1,12 @@
 package com.sky.config;
 
+import com.sky.converter.SerializedPayloadHttpMessageConverter;
+import com.sky.interceptor.ConditionalGetInterceptor;
 import com.sky.interceptor.JwtTokenAdminInterceptor;
+import com.sky.interceptor.JwtTokenUserInterceptor;
+import com.sky.interceptor.LoadSheddingInterceptor;
+import com.sky.interceptor.RateLimitInterceptor;
+import com.sky.interceptor.UserStoreInterceptor;
 import com.sky.json.JacksonObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +17,7 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -30,6 +37,21 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     @Autowired
     private JwtTokenAdminInterceptor jwtTokenAdminInterceptor;
 
+    @Autowired
+    private UserStoreInterceptor userStoreInterceptor;
+
+    @Autowired
+    private JwtTokenUserInterceptor jwtTokenUserInterceptor;
+
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Autowired
+    private LoadSheddingInterceptor loadSheddingInterceptor;
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
     /**
      * 注册自定义拦截器
      *
@@ -37,9 +59,24 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
      */
     protected void addInterceptors(InterceptorRegistry registry) {
         log.info("开始注册自定义拦截器...");
+        // 过载保护放在最前面，过载时不再解析令牌
+        registry.addInterceptor(loadSheddingInterceptor)
+                .addPathPatterns("/admin/**", "/user/**");
         registry.addInterceptor(jwtTokenAdminInterceptor)
                 .addPathPatterns("/admin/**")
                 .excludePathPatterns("/admin/employee/login");
+        // 用户端门店来自请求头，缓存、库存、分库路由都依赖它，必须注册在限流等拦截器之前
+        registry.addInterceptor(userStoreInterceptor)
+                .addPathPatterns("/user/**");
+        // 库存预占会扣减库存，必须登录，预占归属于当前用户
+        registry.addInterceptor(jwtTokenUserInterceptor)
+                .addPathPatterns("/user/stock/**");
+        // 限流按员工id、用户id分桶，需要 jwt 拦截器写入的上下文
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/admin/**", "/user/**");
+        // 条件请求需要 jwt 拦截器写入的门店信息，必须注册在其后
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/admin/**");
     }
 
     /**
@@ -69,8 +106,14 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
      * @param registry
      */
     protected void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/doc.html").addResourceLocations("classpath:/META-INF/resources/");
-        registry.addResourceHandler("/webjars/**").addResourceLocations("classpath:/META-INF/resources/webjars/");
+        // 客户端支持 gzip 且存在预压缩的 .gz 文件时直接返回压缩版本，解析结果按 Accept-Encoding 缓存
+        // knife4j 自带大文件的 .gz，其余文件由 precompress 打包配置生成
+        registry.addResourceHandler("/doc.html").addResourceLocations("classpath:/META-INF/resources/")
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+        registry.addResourceHandler("/webjars/**").addResourceLocations("classpath:/META-INF/resources/webjars/")
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
     }
 
     protected void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
@@ -80,5 +123,7 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
         // 为消息转换器设置一个对象转化器，对象转换器将 java 对象序列化为 json 数据
         converter.setObjectMapper(new JacksonObjectMapper());
         converters.add(0, converter);
+        // 预序列化的响应体直接写出，放在 Jackson 之前
+        converters.add(0, new SerializedPayloadHttpMessageConverter());
     }
 }
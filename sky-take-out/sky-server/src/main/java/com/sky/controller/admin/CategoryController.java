@@ -1,9 +1,11 @@
 package com.sky.controller.admin;
 
 
+import com.sky.annotation.ConditionalGet;
 import com.sky.dto.CategoryDTO;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.json.SerializedPayload;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.CategoryService;
@@ -28,7 +30,7 @@ public class CategoryController {
     @PostMapping
     @ApiOperation("新增分类")
     public Result save(@RequestBody CategoryDTO categoryDTO) {
-        log.info("新增的分类：{}", categoryDTO);
+        log.debug("新增的分类：{}", categoryDTO);
         categoryService.save(categoryDTO);
         return Result.success();
     }
@@ -36,7 +38,7 @@ public class CategoryController {
     @GetMapping("/page")
     @ApiOperation("分页查询")
     public Result<PageResult> pageQuery(CategoryPageQueryDTO pageQueryDTO) {
-        log.info("分页查询请求参数：{}", pageQueryDTO);
+        log.debug("分页查询请求参数：{}", pageQueryDTO);
         PageResult pageResult = categoryService.pageQuery(pageQueryDTO);
         return Result.success(pageResult);
     }
@@ -44,7 +46,7 @@ public class CategoryController {
     @DeleteMapping
     @ApiOperation("根据id删除分类")
     public Result delete(@RequestParam Long id) {
-        log.info("分类id：{}", id);
+        log.debug("分类id：{}", id);
         categoryService.delete(id);
         return Result.success();
     }
@@ -52,7 +54,7 @@ public class CategoryController {
     @PutMapping
     @ApiOperation("修改分类")
     public Result edit(@RequestBody CategoryDTO categoryDTO) {
-        log.info("修改分类信息：{}", categoryDTO);
+        log.debug("修改分类信息：{}", categoryDTO);
         categoryService.edit(categoryDTO);
         return Result.success();
     }
@@ -60,17 +62,18 @@ public class CategoryController {
     @PostMapping("/status/{status}")
     @ApiOperation("修改分类状态")
     public Result editStatus(@PathVariable Integer status, @RequestParam("id") Long id) {
-        log.info("修改分类状态：{},{}", status, id);
+        log.debug("修改分类状态：{},{}", status, id);
         categoryService.editStatus(status, id);
         return Result.success();
     }
 
     @GetMapping("/list")
-    @ApiOperation("根据类型查询分类")
-    public Result<List<Category>> getByType(@RequestParam(required = false) Integer type) {
-        log.info("类型：{}", type);
-        List<Category> list = categoryService.getByType(type);
-        return Result.success(list);
+    @ApiOperation(value = "根据类型查询分类", response = Category.class, responseContainer = "List")
+    @ConditionalGet(tables = "category")
+    public SerializedPayload getByType(@RequestParam(required = false) Integer type) {
+        log.debug("类型：{}", type);
+        // 直接返回缓存中已序列化好的 Result，不再经过 Jackson
+        return categoryService.getByTypeSerialized(type);
     }
 
 }
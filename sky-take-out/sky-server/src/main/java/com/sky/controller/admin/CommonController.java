@@ -1,21 +1,27 @@
 package com.sky.controller.admin;
 
 
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSException;
 import com.sky.constant.MessageConstant;
+import com.sky.properties.UploadProperties;
 import com.sky.result.Result;
-import com.sky.utils.AliOssUtil;
+import com.sky.service.ImageService;
+import com.sky.vo.UploadQueueHealthVO;
+import com.sky.vo.UploadStatusVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
 
 
 @RestController
@@ -25,29 +31,45 @@ import java.util.UUID;
 public class CommonController {
 
     @Autowired
-    private AliOssUtil aliOssUtil;
+    private ImageService imageService;
+
+    @Autowired
+    private UploadProperties uploadProperties;
 
     @PostMapping("/upload")
     @ApiOperation("文件上传")
-    public Result<String> upload(MultipartFile file) {
-        log.info("文件上传：{}", file);
-
-        /*1.获取文件原始名
-         * 2.获取拓展名
-         * 3.构造新的文件名
-         * 4.生成文件的请求路径
-         * 5.返回
+    public Result<String> upload(MultipartFile file, @RequestParam(required = false) Boolean async) {
+        log.debug("文件上传：{}，异步：{}", file, async);
+
+        /*1.读取文件的同时计算内容哈希
+         * 2.用哈希 + 拓展名作为文件名，相同内容只存一份
+         * 3.图片在后台生成缩略图
+         * 4.返回文件的请求路径（异步模式下先写入本地暂存目录，立即返回，后台再上传到 OSS）
          * */
         try {
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String name = UUID.randomUUID().toString() + extension;
-            String url = aliOssUtil.upload(file.getBytes(), name);
+            boolean asyncMode = async != null ? async : uploadProperties.isAsync();
+            String url = asyncMode ? imageService.uploadAsync(file) : imageService.upload(file);
             return Result.success(url);
-        } catch (IOException e) {
-            log.info("文件上传失败: {}", e);
+        } catch (IOException | OSSException | ClientException e) {
+            log.error("文件上传失败", e);
         }
         return Result.error(MessageConstant.UPLOAD_FAILED);
 
     }
+
+    @GetMapping("/upload/status")
+    @ApiOperation("查询异步上传状态")
+    public Result<UploadStatusVO> uploadStatus(String objectName) {
+        UploadStatusVO status = imageService.getStatus(objectName);
+        if (status == null) {
+            return Result.error(MessageConstant.UPLOAD_STATUS_NOT_FOUND);
+        }
+        return Result.success(status);
+    }
+
+    @GetMapping("/upload/health")
+    @ApiOperation("异步上传队列状况")
+    public Result<UploadQueueHealthVO> uploadHealth() {
+        return Result.success(imageService.health());
+    }
 }
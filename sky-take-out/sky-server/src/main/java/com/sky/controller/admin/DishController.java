@@ -1,18 +1,25 @@
 package com.sky.controller.admin;
 
 
+import com.sky.annotation.ConditionalGet;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.DishService;
+import com.sky.service.DishTransferService;
+import com.sky.vo.DishImportResultVO;
 import com.sky.vo.DishVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -23,18 +30,22 @@ public class DishController {
     @Autowired
     private DishService dishService;
 
+    @Autowired
+    private DishTransferService dishTransferService;
+
     @PostMapping
     @ApiOperation("新增菜品")
     public Result save(@RequestBody DishDTO dishDTO) {
-        log.info("新增菜品请求参数：{}", dishDTO);
+        log.debug("新增菜品请求参数：{}", dishDTO);
         dishService.save(dishDTO);
         return Result.success();
     }
 
     @GetMapping("/page")
     @ApiOperation("菜品分页查询")
+    @ConditionalGet(tables = {"dish", "category", "dish_flavor"})
     public Result<PageResult> page(DishPageQueryDTO dto) {
-        log.info("菜品分页查询请求参数：{}", dto);
+        log.debug("菜品分页查询请求参数：{}", dto);
         PageResult result = dishService.page(dto);
         return Result.success(result);
     }
@@ -43,15 +54,16 @@ public class DishController {
     @DeleteMapping
     @ApiOperation("批量删除菜品")
     public Result delete(@RequestParam List<Long> ids) {
-        log.info("批量删除菜品请求参数：{}", ids);
+        log.debug("批量删除菜品请求参数：{}", ids);
         dishService.delete(ids);
         return Result.success();
     }
 
     @GetMapping("/{id}")
     @ApiOperation("根据id查询菜品")
+    @ConditionalGet(tables = {"dish", "category", "dish_flavor"})
     public Result<DishVO> getById(@PathVariable Long id) {
-        log.info("根据id查询菜品请求参数：{}", id);
+        log.debug("根据id查询菜品请求参数：{}", id);
         DishVO dishVO = dishService.getById(id);
         return Result.success(dishVO);
     }
@@ -59,9 +71,36 @@ public class DishController {
     @PutMapping
     @ApiOperation("修改菜品")
     public Result modifyDish(@RequestBody DishDTO dishDTO) {
-        log.info("修改菜品请求参数：{}", dishDTO);
+        log.debug("修改菜品请求参数：{}", dishDTO);
         dishService.modifyDish(dishDTO);
         return Result.success();
     }
 
+    /**
+     * 批量导入菜品：请求体直接是 CSV 或 JSON Lines 数据，边读边写，不整体加载到内存
+     *
+     * @param format  csv 或 jsonl
+     * @param request
+     * @return
+     * @throws IOException
+     */
+    @PostMapping("/import")
+    @ApiOperation("批量导入菜品")
+    public Result<DishImportResultVO> importDishes(@RequestParam(defaultValue = DishTransferService.FORMAT_JSONL) String format,
+                                                   HttpServletRequest request) throws IOException {
+        log.info("批量导入菜品，格式：{}", format);
+        DishImportResultVO result = dishTransferService.importDishes(request.getInputStream(), format);
+        return Result.success(result);
+    }
+
+    @GetMapping("/export")
+    @ApiOperation("批量导出菜品")
+    public void exportDishes(@RequestParam(defaultValue = DishTransferService.FORMAT_JSONL) String format,
+                             HttpServletResponse response) throws IOException {
+        log.info("批量导出菜品，格式：{}", format);
+        boolean csv = DishTransferService.FORMAT_CSV.equalsIgnoreCase(format);
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=dish." + (csv ? "csv" : "jsonl"));
+        dishTransferService.exportDishes(response.getOutputStream(), format);
+    }
 }
@@ -0,0 +1,34 @@
+package com.sky.controller.admin;
+
+import com.sky.result.Result;
+import com.sky.service.DruidStatService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 数据库连接池监控，位于 /admin 下，需要员工登录
+ */
+@RestController
+@RequestMapping("/admin/druid")
+@Slf4j
+@Api(tags = "连接池监控接口")
+public class DruidStatController {
+
+    @Autowired
+    private DruidStatService druidStatService;
+
+    @GetMapping("/stat")
+    @ApiOperation("连接池、SQL、防火墙统计")
+    public Result<Map<String, Object>> stat(@RequestParam(defaultValue = "20") Integer limit) {
+        log.debug("查询连接池统计，SQL 条数：{}", limit);
+        return Result.success(druidStatService.stat(limit));
+    }
+}
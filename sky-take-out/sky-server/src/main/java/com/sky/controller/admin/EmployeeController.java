@@ -2,6 +2,7 @@ package com.sky.controller.admin;
 
 import com.github.pagehelper.Page;
 import com.sky.constant.JwtClaimsConstant;
+import com.sky.context.BaseContext;
 import com.sky.dto.EmployeeDTO;
 import com.sky.dto.EmployeeLoginDTO;
 import com.sky.dto.EmployeePageQueryDTO;
@@ -49,13 +50,24 @@ public class EmployeeController {
     @PostMapping("/login")
     @ApiOperation(value = "员工登录")
     public Result<EmployeeLoginVO> login(@RequestBody EmployeeLoginDTO employeeLoginDTO) {
-        log.info("员工登录：{}", employeeLoginDTO);
+        log.info("员工登录：{}", employeeLoginDTO.getUsername());
 
-        Employee employee = employeeService.login(employeeLoginDTO);
+        //登录接口不经过拦截器，由这里设置门店，查询落在该门店所在的分片；门店是否存在、是否与员工一致由登录服务校验
+        Employee employee;
+        try {
+            BaseContext.setStoreId(employeeLoginDTO.getStoreId());
+            employee = employeeService.login(employeeLoginDTO);
+        } finally {
+            BaseContext.clear();
+        }
 
         //登录成功后，生成jwt令牌
         Map<String, Object> claims = new HashMap<>();
         claims.put(JwtClaimsConstant.EMP_ID, employee.getId());
+        //令牌中的门店取自员工记录，不使用客户端传入的值
+        if (employee.getStoreId() != null) {
+            claims.put(JwtClaimsConstant.STORE_ID, employee.getStoreId());
+        }
         String token = JwtUtil.createJWT(
                 jwtProperties.getAdminSecretKey(),
                 jwtProperties.getAdminTtl(),
@@ -86,7 +98,7 @@ public class EmployeeController {
     @PostMapping
     @ApiOperation("新增员工")
     public Result save(@RequestBody EmployeeDTO employeeDTO) {
-        log.info("新增员工：{}", employeeDTO);
+        log.debug("新增员工：{}", employeeDTO);
         employeeService.save(employeeDTO);
         return Result.success();
     }
@@ -94,7 +106,7 @@ public class EmployeeController {
     @GetMapping("/page")
     @ApiOperation("分页查询")
     public Result<PageResult> page(EmployeePageQueryDTO pageQueryDTO) {
-        log.info("员工分页查询请求参数：{}", pageQueryDTO);
+        log.debug("员工分页查询请求参数：{}", pageQueryDTO);
         PageResult pageResult = employeeService.pageQuery(pageQueryDTO);
         return Result.success(pageResult);
     }
@@ -102,7 +114,7 @@ public class EmployeeController {
     @PostMapping("/status/{status}")
     @ApiOperation("修改员工状态")
     public Result modifyStatus(@PathVariable Integer status, @RequestParam Long id) {
-        log.info("修改员工状态请求参数：{},{}", status, id);
+        log.debug("修改员工状态请求参数：{},{}", status, id);
         employeeService.modifyStatus(status, id);
         return Result.success();
     }
@@ -110,7 +122,7 @@ public class EmployeeController {
     @GetMapping("/{id}")
     @ApiOperation("根据id查询员工")
     public Result<Employee> queryById(@PathVariable Long id) {
-        log.info("员工id：{}", id);
+        log.debug("员工id：{}", id);
         Employee employee = employeeService.queryById(id);
         return Result.success(employee);
     }
@@ -118,7 +130,7 @@ public class EmployeeController {
     @PutMapping
     @ApiOperation("编辑员工信息")
     public Result editEmployee(@RequestBody EmployeeDTO employeeDTO) {
-        log.info("修改后的员工信息：{}", employeeDTO);
+        log.debug("修改后的员工信息：{}", employeeDTO);
         employeeService.editEmployee(employeeDTO);
         return Result.success();
     }
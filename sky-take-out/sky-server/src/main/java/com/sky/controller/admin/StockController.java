@@ -0,0 +1,39 @@
+package com.sky.controller.admin;
+
+import com.sky.dto.DishStockDTO;
+import com.sky.result.Result;
+import com.sky.service.StockService;
+import com.sky.vo.DishStockVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController("adminStockController")
+@RequestMapping("/admin/stock")
+@Slf4j
+@Api(tags = "菜品库存相关接口")
+public class StockController {
+
+    @Autowired
+    private StockService stockService;
+
+    @PutMapping
+    @ApiOperation("设置菜品每日库存")
+    public Result setDailyStock(@RequestBody DishStockDTO dishStockDTO) {
+        log.debug("设置菜品每日库存：{}", dishStockDTO);
+        stockService.setDailyStock(dishStockDTO);
+        return Result.success();
+    }
+
+    @GetMapping("/{dishId}")
+    @ApiOperation("查询菜品每日库存")
+    public Result<DishStockVO> getDailyStock(@PathVariable Long dishId,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return Result.success(stockService.getDailyStock(dishId, date));
+    }
+}
@@ -0,0 +1,32 @@
+package com.sky.controller.user;
+
+import com.sky.result.Result;
+import com.sky.service.DishService;
+import com.sky.vo.DishVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController("userDishController")
+@RequestMapping("/user/dish")
+@Slf4j
+@Api(tags = "用户端菜品接口")
+public class DishController {
+
+    @Autowired
+    private DishService dishService;
+
+    @GetMapping("/list")
+    @ApiOperation("根据分类查询起售菜品及口味")
+    public Result<List<DishVO>> list(@RequestParam Long categoryId) {
+        log.debug("根据分类查询菜品：{}", categoryId);
+        return Result.success(dishService.listWithFlavors(categoryId));
+    }
+}
@@ -0,0 +1,41 @@
+package com.sky.controller.user;
+
+import com.sky.cache.MenuSnapshot;
+import com.sky.cache.MenuSnapshotBuilder;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/user/menu")
+@Slf4j
+@Api(tags = "用户端菜单接口")
+public class MenuController {
+
+    @Autowired
+    private MenuSnapshotBuilder menuSnapshotBuilder;
+
+    /**
+     * 直接输出预先序列化好的菜单快照（见 SerializedPayloadHttpMessageConverter），
+     * 带 ETag 的 GET 响应由 Spring 处理 If-None-Match 协商缓存，命中时返回 304
+     *
+     * @return
+     */
+    @GetMapping
+    @ApiOperation("查询整份菜单")
+    public ResponseEntity<MenuSnapshot> menu() {
+        MenuSnapshot snapshot = menuSnapshotBuilder.get();
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .body(snapshot);
+    }
+}
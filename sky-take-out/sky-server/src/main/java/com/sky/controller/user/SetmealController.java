@@ -0,0 +1,33 @@
+package com.sky.controller.user;
+
+import com.sky.json.SerializedPayload;
+import com.sky.service.SetmealService;
+import com.sky.vo.DishItemVO;
+import com.sky.vo.SetmealComboVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController("userSetmealController")
+@RequestMapping("/user/setmeal")
+@Slf4j
+@Api(tags = "用户端套餐接口")
+public class SetmealController {
+
+    @Autowired
+    private SetmealService setmealService;
+
+    @GetMapping("/list")
+    @ApiOperation(value = "根据分类查询套餐及其菜品", response = SetmealComboVO.class, responseContainer = "List")
+    public SerializedPayload list(@RequestParam Long categoryId) {
+        return setmealService.listCombos(categoryId);
+    }
+
+    @GetMapping("/dish/{id}")
+    @ApiOperation(value = "查询套餐包含的菜品", response = DishItemVO.class, responseContainer = "List")
+    public SerializedPayload dishList(@PathVariable Long id) {
+        return setmealService.getDishItems(id);
+    }
+}
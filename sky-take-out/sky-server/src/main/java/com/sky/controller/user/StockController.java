@@ -0,0 +1,36 @@
+package com.sky.controller.user;
+
+import com.sky.dto.StockReservationDTO;
+import com.sky.result.Result;
+import com.sky.service.StockService;
+import com.sky.vo.StockReservationVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController("userStockController")
+@RequestMapping("/user/stock")
+@Slf4j
+@Api(tags = "用户端库存预占接口")
+public class StockController {
+
+    @Autowired
+    private StockService stockService;
+
+    @PostMapping("/reservation")
+    @ApiOperation("提交订单前预占库存")
+    public Result<StockReservationVO> reserve(@RequestBody StockReservationDTO stockReservationDTO) {
+        log.debug("预占库存：{}", stockReservationDTO);
+        return Result.success(stockService.reserve(stockReservationDTO));
+    }
+
+    @DeleteMapping("/reservation/{reservationId}")
+    @ApiOperation("取消预占")
+    public Result release(@PathVariable String reservationId) {
+        log.debug("取消库存预占：{}", reservationId);
+        stockService.release(reservationId);
+        return Result.success();
+    }
+}
@@ -0,0 +1,76 @@
+package com.sky.converter;
+
+import com.sky.json.SerializedPayload;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 预序列化响应体的消息转换器：直接写出缓存的字节并设置 Content-Length，
+ * 客户端支持 gzip 时写出预先压缩好的版本（Tomcat 的响应压缩会跳过已设置 Content-Encoding 的响应）
+ * 注册在 Jackson 转换器之前，只处理 SerializedPayload，其他返回值不受影响
+ */
+public class SerializedPayloadHttpMessageConverter extends AbstractHttpMessageConverter<SerializedPayload> {
+
+    private static final String GZIP = "gzip";
+
+    public SerializedPayloadHttpMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SerializedPayload.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SerializedPayload readInternal(Class<? extends SerializedPayload> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("SerializedPayload 只用于响应", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(SerializedPayload payload, MediaType contentType) {
+        return (long) payload.getJson().length;
+    }
+
+    @Override
+    protected void writeInternal(SerializedPayload payload, HttpOutputMessage outputMessage) throws IOException {
+        HttpHeaders headers = outputMessage.getHeaders();
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        byte[] body = payload.getJson();
+        // 很小的响应压缩后反而更大，此时仍写出原文
+        if (acceptsGzip() && payload.getGzip().length < body.length) {
+            body = payload.getGzip();
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        headers.setContentLength(body.length);
+        StreamUtils.copy(body, outputMessage.getBody());
+    }
+
+    private boolean acceptsGzip() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+        String acceptEncoding = ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains(GZIP);
+    }
+}
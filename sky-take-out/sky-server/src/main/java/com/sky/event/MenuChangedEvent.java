@@ -0,0 +1,38 @@
+package com.sky.event;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 菜单数据（分类、菜品、口味）发生变化的事件，用于增量重建菜单快照
+ * 经由事务发件箱投递到所有节点，聚合id为门店id
+ */
+@Getter
+public class MenuChangedEvent {
+
+    public static final String AGGREGATE_TYPE = "menu";
+
+    //发生变化的菜品id
+    private final Set<Long> dishIds;
+
+    //发生变化的分类id（菜品的新分类、被修改的分类）
+    private final Set<Long> categoryIds;
+
+    //事件发生时的门店
+    private final Long storeId;
+
+    @JsonCreator
+    public MenuChangedEvent(@JsonProperty("dishIds") Collection<Long> dishIds,
+                            @JsonProperty("categoryIds") Collection<Long> categoryIds,
+                            @JsonProperty("storeId") Long storeId) {
+        this.dishIds = dishIds == null ? Collections.emptySet() : new HashSet<>(dishIds);
+        this.categoryIds = categoryIds == null ? Collections.emptySet() : new HashSet<>(categoryIds);
+        this.storeId = storeId;
+    }
+}
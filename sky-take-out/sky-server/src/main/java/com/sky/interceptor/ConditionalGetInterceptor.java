@@ -0,0 +1,90 @@
+package com.sky.interceptor;
+
+import com.sky.annotation.ConditionalGet;
+import com.sky.cache.TableVersions;
+import com.sky.context.BaseContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+/**
+ * 条件请求拦截器：对标注了 @ConditionalGet 的 GET 接口，用所读表的版本号、门店和请求地址生成 ETag
+ * If-None-Match 命中时直接返回 304，Controller、Service、Mapper 都不会执行
+ * 需要注册在 jwt 拦截器之后，门店信息由 jwt 拦截器写入上下文
+ */
+@Component
+@Slf4j
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        String etag;
+        try {
+            etag = etag(request, conditionalGet.tables());
+        } catch (RuntimeException ex) {
+            // 拿不到版本号时按普通请求处理，不返回 ETag
+            log.warn("读取表版本号失败，跳过条件请求：{}", ex.getMessage());
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (matches(request, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    // 版本号在 Controller 读数据之前取得，ETag 只可能比数据旧，不会出现新 ETag 配旧数据
+    // 使用弱 ETag：它标识的是数据版本而不是响应字节，并且 Tomcat 不会压缩带强 ETag 的响应
+    private String etag(HttpServletRequest request, String[] tables) {
+        Long storeId = BaseContext.getStoreId();
+        StringBuilder source = new StringBuilder()
+                .append(storeId).append('|')
+                .append(request.getRequestURI()).append('?').append(request.getQueryString());
+        for (String version : tableVersions.current(storeId, tables)) {
+            source.append('|').append(version);
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // If-None-Match 使用弱比较，忽略双方的 W/ 前缀
+    private boolean matches(HttpServletRequest request, String etag) {
+        String opaqueTag = etag.substring(2);
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        while (headers.hasMoreElements()) {
+            for (String candidate : headers.nextElement().split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(opaqueTag) || candidate.equals("*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package com.sky.interceptor;
 
 import com.sky.constant.JwtClaimsConstant;
 import com.sky.context.BaseContext;
+import com.sky.context.RequestContext;
 import com.sky.properties.JwtProperties;
 import com.sky.utils.JwtUtil;
 import io.jsonwebtoken.Claims;
@@ -34,6 +35,9 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
      * @throws Exception
      */
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        //清理线程上可能残留的上一次请求的上下文
+        BaseContext.clear();
+
         //判断当前拦截到的是Controller的方法还是其他资源
         if (!(handler instanceof HandlerMethod)) {
             //当前拦截到的不是动态方法，直接放行
@@ -45,11 +49,14 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
 
         //2、校验令牌
         try {
-            log.info("jwt校验:{}", token);
             Claims claims = JwtUtil.parseJWT(jwtProperties.getAdminSecretKey(), token);
             Long empId = Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
-            BaseContext.setCurrentId(empId);
-            log.info("当前员工id：{}", empId);
+            BaseContext.setContext(RequestContext.builder()
+                    .empId(empId)
+                    .tenantId(getLongClaim(claims, JwtClaimsConstant.TENANT_ID))
+                    .storeId(getLongClaim(claims, JwtClaimsConstant.STORE_ID))
+                    .build());
+            log.debug("jwt校验通过，当前员工id：{}", empId);
             //3、通过，放行
             return true;
         } catch (Exception ex) {
@@ -58,4 +65,22 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
             return false;
         }
     }
+
+    /**
+     * 请求完成后清理上下文，防止线程池复用线程时把当前员工id带到下一个请求
+     *
+     * @param request
+     * @param response
+     * @param handler
+     * @param ex
+     * @throws Exception
+     */
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        BaseContext.clear();
+    }
+
+    private Long getLongClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value == null ? null : Long.valueOf(value.toString());
+    }
 }
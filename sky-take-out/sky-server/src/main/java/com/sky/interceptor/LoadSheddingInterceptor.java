@@ -0,0 +1,41 @@
+package com.sky.interceptor;
+
+import com.sky.properties.RateLimitProperties;
+import com.sky.ratelimit.LoadShedder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 过载保护拦截器：注册在最前面，过载时在解析令牌之前就返回 503
+ */
+@Component
+@Slf4j
+public class LoadSheddingInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private LoadShedder loadShedder;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (loadShedder.enter()) {
+            return true;
+        }
+        log.debug("节点过载，拒绝请求：{}", request.getRequestURI());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitProperties.getShedding().getRetryAfterSeconds()));
+        response.setStatus(503);
+        return false;
+    }
+
+    // 只有 preHandle 返回 true 的请求才会执行到这里，与 enter 成对
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        loadShedder.exit();
+    }
+}
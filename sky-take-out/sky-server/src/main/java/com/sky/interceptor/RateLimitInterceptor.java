@@ -0,0 +1,53 @@
+package com.sky.interceptor;
+
+import com.sky.context.BaseContext;
+import com.sky.properties.RateLimitProperties;
+import com.sky.ratelimit.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流拦截器：按接口路径模式 + 员工id / 用户id（未登录时为客户端 IP）限流，超限返回 429
+ * 需要注册在 jwt 拦截器之后，员工id、用户id由 jwt 拦截器写入上下文
+ * 客户端 IP 由 server.forward-headers-strategy 从代理转发的请求头中还原，getRemoteAddr 不再是代理地址
+ */
+@Component
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!rateLimitProperties.isEnabled() || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern == null ? request.getRequestURI() : pattern.toString();
+        Long empId = BaseContext.getCurrentId();
+        Long userId = BaseContext.getUserId();
+        String caller = empId != null ? "emp:" + empId : userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(endpoint, caller);
+        if (waitNanos == 0) {
+            return true;
+        }
+        log.debug("请求超过限流：{} {}", endpoint, caller);
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setStatus(429);
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sky.interceptor;
+
+import com.sky.constant.JwtClaimsConstant;
+import com.sky.context.BaseContext;
+import com.sky.shard.StoreRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 用户端门店解析的拦截器
+ * 用户端没有员工令牌，门店id由请求头 storeId 传入（小程序选择门店后携带）并写入上下文，
+ * 菜单、套餐缓存和库存的门店维度、分库路由因此与管理端令牌中的门店一致；不带门店的请求使用默认门店
+ * 请求头由客户端控制，不存在的门店返回404，不写入上下文
+ */
+@Component
+@Slf4j
+public class UserStoreInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private StoreRegistry storeRegistry;
+
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        //清理线程上可能残留的上一次请求的上下文
+        BaseContext.clear();
+
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        String storeId = request.getHeader(JwtClaimsConstant.STORE_ID);
+        if (!StringUtils.hasText(storeId)) {
+            return true;
+        }
+        Long id;
+        try {
+            id = Long.valueOf(storeId.trim());
+        } catch (NumberFormatException ex) {
+            log.debug("门店id格式错误：{}", storeId);
+            response.setStatus(400);
+            return false;
+        }
+        if (!storeRegistry.exists(id)) {
+            log.debug("门店不存在：{}", id);
+            response.setStatus(404);
+            return false;
+        }
+        BaseContext.setStoreId(id);
+        return true;
+    }
+
+    /**
+     * 请求完成后清理上下文
+     */
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        BaseContext.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package com.sky.logging;
+
+/**
+ * 请求日志采样标记，由 LogSamplingFilter 写入 MDC，SampledRequestTurboFilter 读取
+ */
+public final class LogSampling {
+
+    public static final String MDC_KEY = "sampled";
+
+    public static final String SAMPLED = "1";
+
+    private LogSampling() {
+    }
+}
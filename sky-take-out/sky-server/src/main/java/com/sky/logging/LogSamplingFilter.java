@@ -0,0 +1,45 @@
+package com.sky.logging;
+
+import com.sky.properties.LogSamplingProperties;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按比例对请求采样：被采样的请求在 MDC 中标记 sampled=1，整个请求（包括传递了上下文的异步任务）输出 DEBUG 日志
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LogSamplingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private LogSamplingProperties logSamplingProperties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String force = request.getHeader(logSamplingProperties.getForceHeader());
+        boolean sampled = "1".equals(force) || "true".equalsIgnoreCase(force)
+                || ThreadLocalRandom.current().nextDouble() < logSamplingProperties.getRate();
+        if (!sampled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(LogSampling.MDC_KEY, LogSampling.SAMPLED);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(LogSampling.MDC_KEY);
+        }
+    }
+}
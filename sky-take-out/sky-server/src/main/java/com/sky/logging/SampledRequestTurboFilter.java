@@ -0,0 +1,33 @@
+package com.sky.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * 被采样请求的 DEBUG 日志直接放行（绕过 logger 级别），其余日志按 logger 级别判断
+ * INFO 及以上直接返回 NEUTRAL，不读取 MDC，对未采样请求几乎没有开销
+ */
+public class SampledRequestTurboFilter extends TurboFilter {
+
+    // 只放行这些前缀的 logger，避免框架的 DEBUG 日志刷屏
+    private String loggerPrefix = "com.sky";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.levelInt != Level.DEBUG_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        if (LogSampling.SAMPLED.equals(MDC.get(LogSampling.MDC_KEY)) && logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+}
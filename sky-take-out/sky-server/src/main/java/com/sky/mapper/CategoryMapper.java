@@ -2,6 +2,7 @@ package com.sky.mapper;
 
 import com.github.pagehelper.Page;
 import com.sky.annotation.AutoFill;
+import com.sky.annotation.VersionedTable;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
 import com.sky.enumeration.OperationType;
@@ -13,6 +14,7 @@ import org.apache.ibatis.annotations.Select;
 import java.util.List;
 
 @Mapper
+@VersionedTable("category")
 public interface CategoryMapper {
     @Insert("insert into category ( type, name, sort, status, create_time, update_time, create_user, update_user) " +
             "VALUE (#{type},#{name},#{sort},#{status},#{createTime},#{updateTime},#{createUser},#{updateUser})")
@@ -30,4 +32,13 @@ public interface CategoryMapper {
 
 
     List<Category> selectByType(Integer type);
+
+    // 包含停用的分类
+    @Select("select * from category where type = #{type}")
+    List<Category> selectAllByType(Integer type);
+
+    // 分类下是否还有菜品、套餐，删除分类前在事务内确认：0 都没有，1 有菜品，2 没有菜品但有套餐
+    @Select("select case when exists (select 1 from dish where category_id = #{id}) then 1 " +
+            "when exists (select 1 from setmeal where category_id = #{id}) then 2 else 0 end")
+    int selectReferenceKind(Long id);
 }
@@ -1,6 +1,7 @@
 package com.sky.mapper;
 
 import com.sky.annotation.AutoFill;
+import com.sky.annotation.VersionedTable;
 import com.sky.entity.DishFlavor;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
@@ -9,6 +10,7 @@ import org.apache.ibatis.annotations.Select;
 import java.util.List;
 
 @Mapper
+@VersionedTable("dish_flavor")
 public interface DishFlavorMapper {
 
 
@@ -19,4 +21,29 @@ public interface DishFlavorMapper {
 
     @Select("select * from dish_flavor where dish_id = #{id}")
     List<DishFlavor> selectByDishId(Long id);
+
+    /**
+     * 查询起售中菜品的口味，categoryId 为空时查询全部分类
+     *
+     * @param categoryId
+     * @return
+     */
+    List<DishFlavor> selectEnabled(Long categoryId);
+
+    /**
+     * 批量查询多个菜品的口味，一条 SQL 代替逐个菜品查询
+     *
+     * @param dishIds
+     * @return
+     */
+    List<DishFlavor> selectByDishIds(List<Long> dishIds);
+
+    /**
+     * 按 id 批量修改口味名称和数据（单条 update ... case when）
+     *
+     * @param dishFlavors
+     */
+    void updateBatch(List<DishFlavor> dishFlavors);
+
+    void deleteByIds(List<Long> ids);
 }
@@ -2,6 +2,7 @@ package com.sky.mapper;
 
 import com.github.pagehelper.Page;
 import com.sky.annotation.AutoFill;
+import com.sky.annotation.VersionedTable;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
 import com.sky.enumeration.OperationType;
@@ -10,8 +11,13 @@ import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
+@VersionedTable("dish")
 public interface DishMapper {
     @Select("select count(id) from dish where category_id = #{categoryId}")
     Integer countByCategoryId(Long categoryId);
@@ -25,9 +31,45 @@ public interface DishMapper {
     @Select("select * from dish where id = #{id}")
     Dish selectById(Long id);
 
+    /**
+     * 查询菜品及其口味（一条连接查询）
+     *
+     * @param id
+     * @return
+     */
+    DishVO selectByIdWithFlavors(Long id);
+
     @Delete("delete from dish where id = #{id}")
     void deleteById(Long id);
 
     @AutoFill(OperationType.UPDATE)
     void update(Dish dish);
+
+    /**
+     * 查询起售中的菜品，categoryId 为空时查询全部分类
+     *
+     * @param categoryId
+     * @return
+     */
+    List<Dish> selectEnabled(Long categoryId);
+
+    @Select("select name from dish")
+    List<String> selectAllNames();
+
+    /**
+     * 流式读取全部菜品及口味（一条连接查询），MySQL 驱动逐行返回，不会一次加载到内存
+     * 必须在事务内使用，游标在事务结束时关闭；流式读取期间同一连接不能再执行其他 SQL
+     *
+     * @return
+     */
+    Cursor<DishVO> selectAllForExport();
+
+    /**
+     * 查询菜品id和所属分类：指定的菜品，以及指定分类下的全部菜品；两个参数都为空时查询全部菜品
+     *
+     * @param dishIds
+     * @param categoryIds
+     * @return 只填充 id、categoryId
+     */
+    List<Dish> selectCategoryRefs(Collection<Long> dishIds, Collection<Long> categoryIds);
 }
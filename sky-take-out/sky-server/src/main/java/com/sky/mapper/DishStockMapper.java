@@ -0,0 +1,37 @@
+package com.sky.mapper;
+
+import com.sky.entity.DishStock;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+
+@Mapper
+public interface DishStockMapper {
+
+    /**
+     * 查询菜品某天的库存
+     *
+     * @param dishId
+     * @param stockDate
+     * @return 没有设置库存（不限量）时返回 null
+     */
+    @Select("select * from dish_stock where dish_id = #{dishId} and stock_date = #{stockDate}")
+    DishStock selectByDishAndDate(Long dishId, LocalDate stockDate);
+
+    /**
+     * 设置菜品某天的库存，已存在时只更新库存上限
+     *
+     * @param dishStock
+     */
+    void upsert(DishStock dishStock);
+
+    /**
+     * 对账：写回 Redis 中的已预占数量
+     *
+     * @param dishStock
+     */
+    @Update("update dish_stock set sold = #{sold}, update_time = #{updateTime} where dish_id = #{dishId} and stock_date = #{stockDate}")
+    void updateSold(DishStock dishStock);
+}
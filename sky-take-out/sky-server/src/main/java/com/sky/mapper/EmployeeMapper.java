@@ -2,6 +2,7 @@ package com.sky.mapper;
 
 import com.github.pagehelper.Page;
 import com.sky.annotation.AutoFill;
+import com.sky.annotation.VersionedTable;
 import com.sky.dto.EmployeePageQueryDTO;
 import com.sky.entity.Employee;
 import com.sky.enumeration.OperationType;
@@ -11,6 +12,7 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
 @Mapper
+@VersionedTable("employee")
 public interface EmployeeMapper {
 
     /**
@@ -23,9 +25,9 @@ public interface EmployeeMapper {
     Employee getByUsername(String username);
 
     // 新增员工 配置文件中需要开启驼峰命名，id_number 才能和 idNumber 匹配
-    @Insert("insert into employee (name,username,password,phone,sex,id_number,status,create_time,update_time,update_user,create_user)" +
+    @Insert("insert into employee (name,username,password,phone,sex,id_number,status,store_id,create_time,update_time,update_user,create_user)" +
             " values " +
-            "(#{name},#{username},#{password},#{phone},#{sex},#{idNumber},#{status},#{createTime},#{updateTime},#{updateUser},#{createUser})"
+            "(#{name},#{username},#{password},#{phone},#{sex},#{idNumber},#{status},#{storeId},#{createTime},#{updateTime},#{updateUser},#{createUser})"
     )
     @AutoFill(OperationType.INSERT)
     void insert(Employee employee);
@@ -39,4 +41,17 @@ public interface EmployeeMapper {
 
     @Select("select * from employee where id = #{id}")
     Employee selectById(Long id);
+
+    /**
+     * 登录只需要的字段，避免 select *
+     *
+     * @param username
+     * @return
+     */
+    @Select("select id, username, name, password, status, store_id from employee where username = #{username}")
+    Employee getPrincipalByUsername(String username);
+
+    // 登录时密码格式迁移，不走公共字段填充，避免改动 update_time
+    @Update("update employee set password = #{password} where id = #{id}")
+    void updatePassword(Long id, String password);
 }
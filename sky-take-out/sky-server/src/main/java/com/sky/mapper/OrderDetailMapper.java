@@ -0,0 +1,14 @@
+package com.sky.mapper;
+
+import com.sky.entity.OrderDetail;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface OrderDetailMapper {
+
+    @Select("select * from order_detail where order_id = #{orderId}")
+    List<OrderDetail> selectByOrderId(Long orderId);
+}
@@ -0,0 +1,54 @@
+package com.sky.mapper;
+
+import com.sky.dto.DailySalesDTO;
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.dto.OrderCountDTO;
+import com.sky.entity.Orders;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface OrderMapper {
+
+    @Select("select * from orders where id = #{id}")
+    Orders selectById(Long id);
+
+    /**
+     * 统计下单时间在 [begin, end) 内已完成订单的商品销量
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    List<GoodsSalesDTO> sumSales(LocalDateTime begin, LocalDateTime end);
+
+    /**
+     * 按下单日期、商品名称统计下单时间在 [begin, end) 内已完成订单的销量，没有销量的日期不返回
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    List<DailySalesDTO> sumSalesByDate(LocalDateTime begin, LocalDateTime end);
+
+    /**
+     * 查询下单时间在 [begin, end) 内已完成订单的id
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    List<Long> selectCompletedIds(LocalDateTime begin, LocalDateTime end);
+
+    /**
+     * 按下单日期、状态统计下单时间在 [begin, end) 内的订单数，没有订单的日期不返回
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    List<OrderCountDTO> countByDateAndStatus(LocalDateTime begin, LocalDateTime end);
+}
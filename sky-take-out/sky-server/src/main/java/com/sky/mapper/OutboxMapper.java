@@ -0,0 +1,59 @@
+package com.sky.mapper;
+
+import com.sky.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface OutboxMapper {
+
+    /**
+     * 写入发件箱
+     *
+     * @param event
+     */
+    @Insert("insert into outbox_event (aggregate_type, aggregate_id, event_type, dedup_key, payload, status, attempts, create_time) " +
+            "values (#{aggregateType}, #{aggregateId}, #{eventType}, #{dedupKey}, #{payload}, #{status}, #{attempts}, #{createTime})")
+    void insert(OutboxEvent event);
+
+    /**
+     * 按id顺序查询待投递的事件
+     *
+     * @param limit
+     * @return
+     */
+    @Select("select * from outbox_event where status = 0 order by id limit #{limit}")
+    List<OutboxEvent> selectPending(int limit);
+
+    /**
+     * 标记为已投递
+     *
+     * @param ids
+     * @param sentTime
+     */
+    void markSent(List<Long> ids, LocalDateTime sentTime);
+
+    /**
+     * 投递失败次数 +1
+     *
+     * @param id
+     */
+    @Update("update outbox_event set attempts = attempts + 1 where id = #{id}")
+    void increaseAttempts(Long id);
+
+    /**
+     * 删除指定时间之前已投递的事件
+     *
+     * @param before
+     * @param limit
+     * @return
+     */
+    @Delete("delete from outbox_event where status = 1 and sent_time < #{before} limit #{limit}")
+    int deleteSentBefore(LocalDateTime before, int limit);
+}
@@ -0,0 +1,38 @@
+package com.sky.mapper;
+
+import com.sky.dto.DailySalesDTO;
+import com.sky.dto.GoodsSalesDTO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface SalesDailyMapper {
+
+    @Select("select sale_date date, name, number from sales_daily where sale_date between #{begin} and #{end}")
+    List<DailySalesDTO> selectByDateRange(LocalDate begin, LocalDate end);
+
+    @Delete("delete from sales_daily where sale_date = #{saleDate}")
+    void deleteByDate(LocalDate saleDate);
+
+    /**
+     * 批量写入某天的销量
+     *
+     * @param saleDate
+     * @param sales
+     * @param createTime
+     */
+    void insertBatch(LocalDate saleDate, List<GoodsSalesDTO> sales, LocalDateTime createTime);
+
+    /**
+     * 批量写入多天的销量，已存在的日期、商品覆盖销量
+     *
+     * @param sales
+     * @param createTime
+     */
+    void upsertBatch(List<DailySalesDTO> sales, LocalDateTime createTime);
+}
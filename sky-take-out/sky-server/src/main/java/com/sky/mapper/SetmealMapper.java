@@ -1,15 +1,54 @@
 package com.sky.mapper;
 
+import com.sky.annotation.VersionedTable;
+import com.sky.entity.Setmeal;
+import com.sky.entity.SetmealDish;
+import com.sky.vo.SetmealComboVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
+@VersionedTable("setmeal")
 public interface SetmealMapper {
     @Select("select count(id) from setmeal where category_id = #{categoryId}")
     Integer countByCategoryId(Long id);
 
     @Select("select setmeal_id from setmeal_dish where dish_id = #{id}")
     List<Long> selectByDishId(Long id);
+
+    /**
+     * 查询分类下起售的套餐及其包含的菜品
+     *
+     * @param categoryId
+     * @return
+     */
+    List<SetmealComboVO> selectCombosByCategoryId(Long categoryId);
+
+    /**
+     * 查询套餐所在分类
+     *
+     * @param id
+     * @return
+     */
+    @Select("select category_id from setmeal where id = #{id}")
+    Long selectCategoryId(Long id);
+
+    /**
+     * 查询菜品所在的套餐，dishIds 为 null 时查询全部关系
+     *
+     * @param dishIds 不能为空集合
+     * @return 只填充 setmealId、dishId
+     */
+    List<SetmealDish> selectDishRefs(Collection<Long> dishIds);
+
+    /**
+     * 查询分类下的套餐id，categoryIds 为 null 时查询全部套餐
+     *
+     * @param categoryIds 不能为空集合
+     * @return 只填充 id、categoryId
+     */
+    List<Setmeal> selectCategoryRefs(Collection<Long> categoryIds);
 }
@@ -0,0 +1,22 @@
+package com.sky.mapper;
+
+import com.sky.dto.DateCountDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface UserMapper {
+
+    /**
+     * 按注册日期统计 end 之前注册的用户数，按日期升序
+     *
+     * @param end
+     * @return
+     */
+    @Select("select date(create_time) as date, count(*) as count from user " +
+            "where create_time < #{end} group by date(create_time) order by date")
+    List<DateCountDTO> countByCreateDate(LocalDateTime end);
+}
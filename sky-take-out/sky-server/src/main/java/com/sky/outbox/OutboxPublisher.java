@@ -0,0 +1,79 @@
+package com.sky.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.entity.OutboxEvent;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.mapper.OutboxMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 事务发件箱写入：事件与业务数据在同一事务中落库，事务回滚事件也随之消失；
+ * 提交后由 OutboxRelay 投递，业务事务中不再同步执行任何缓存操作
+ */
+@Component
+public class OutboxPublisher {
+
+    @Autowired
+    private OutboxMapper outboxMapper;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    /**
+     * 在当前事务中写入发件箱
+     *
+     * @param aggregateType 聚合类型
+     * @param aggregateId   聚合id，同一聚合的事件按写入顺序投递
+     * @param event         事件，类型需要在 OutboxStreamConsumer 中注册
+     */
+    public void publish(String aggregateType, Object aggregateId, Object event) {
+        publish(outboxMapper, aggregateType, aggregateId, event);
+    }
+
+    /**
+     * 在当前事务中写入发件箱，使用指定的 Mapper（如 BATCH 会话获取的 Mapper，同一事务中不能切换执行器类型）
+     *
+     * @param mapper
+     * @param aggregateType
+     * @param aggregateId
+     * @param event
+     */
+    public void publish(OutboxMapper mapper, String aggregateType, Object aggregateId, Object event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("发件箱事件必须在业务事务中写入");
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("事件序列化失败：" + event.getClass().getSimpleName(), e);
+        }
+        mapper.insert(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId == null ? "0" : aggregateId.toString())
+                .eventType(event.getClass().getSimpleName())
+                .dedupKey(UUID.randomUUID().toString().replace("-", ""))
+                .payload(payload)
+                .status(OutboxEvent.PENDING)
+                .attempts(0)
+                .createTime(LocalDateTime.now())
+                .build());
+
+        // 提交后立即触发一次投递，不必等到下次轮询
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.relayAsync();
+            }
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package com.sky.outbox;
+
+import com.sky.entity.OutboxEvent;
+import com.sky.mapper.OutboxMapper;
+import com.sky.properties.OutboxProperties;
+import com.sky.shard.ShardRouter;
+import com.sky.shard.ShardRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 发件箱投递：按id顺序批量读取待投递事件，写入 Redis Stream 后标记为已投递
+ * 同一时间只有持有 Redis 锁的节点投递，因此同一聚合的事件在 Stream 中保持写入顺序；
+ * 写入 Stream 后、标记前宕机会重复投递（至少一次），消费端按 dedupKey 去重；
+ * 分库部署时发件箱随业务数据分布在各分片，依次投递每个分片
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    public static final String STREAM_KEY = "outbox:stream";
+
+    private static final String LOCK_KEY = "outbox:relay:lock";
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private static final int CLEANUP_BATCH = 1000;
+
+    @Autowired
+    private OutboxMapper outboxMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ReentrantLock localLock = new ReentrantLock();
+
+    /**
+     * 定时轮询，兜底投递提交后触发失败或其他节点写入的事件
+     */
+    @Scheduled(fixedDelayString = "${sky.outbox.poll-interval-millis:1000}")
+    public void poll() {
+        relay();
+    }
+
+    /**
+     * 事务提交后异步触发一次投递，显式指定通用线程池，不随容器中线程池的增减落到专用线程池上
+     */
+    @Async("applicationTaskExecutor")
+    public void relayAsync() {
+        relay();
+    }
+
+    /**
+     * 投递待发送的事件
+     */
+    public void relay() {
+        // 本节点已有线程在投递，它会读到新写入的事件
+        if (!localLock.tryLock()) {
+            return;
+        }
+        try {
+            Boolean locked = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, nodeId, outboxProperties.getLockLeaseMillis(), TimeUnit.MILLISECONDS);
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            try {
+                for (String shard : shards()) {
+                    ShardRoutingDataSource.onShard(shard, () -> {
+                        for (int i = 0; i < outboxProperties.getMaxBatchesPerRun(); i++) {
+                            if (!relayBatch()) {
+                                break;
+                            }
+                        }
+                    });
+                }
+            } finally {
+                stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(LOCK_KEY), nodeId);
+            }
+        } catch (Exception ex) {
+            log.error("发件箱投递失败，等待下次轮询", ex);
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    /**
+     * 投递一批事件
+     *
+     * @return 是否可能还有待投递的事件
+     */
+    private boolean relayBatch() {
+        List<OutboxEvent> events = outboxMapper.selectPending(outboxProperties.getBatchSize());
+        if (events.isEmpty()) {
+            return false;
+        }
+        List<Long> sent = new ArrayList<>(events.size());
+        boolean failed = false;
+        for (OutboxEvent event : events) {
+            try {
+                stringRedisTemplate.opsForStream().add(STREAM_KEY, toRecord(event));
+                sent.add(event.getId());
+            } catch (RuntimeException ex) {
+                // 后面的事件不再投递，保证顺序
+                log.error("发件箱事件投递失败：{}", event.getId(), ex);
+                outboxMapper.increaseAttempts(event.getId());
+                failed = true;
+                break;
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboxMapper.markSent(sent, LocalDateTime.now());
+            stringRedisTemplate.opsForStream().trim(STREAM_KEY, outboxProperties.getStreamMaxLength(), true);
+            log.debug("发件箱投递事件：{}条", sent.size());
+        }
+        return !failed && events.size() == outboxProperties.getBatchSize();
+    }
+
+    /**
+     * 每天凌晨清理过期的已投递事件
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusDays(outboxProperties.getRetentionDays());
+        for (String shard : shards()) {
+            int total = ShardRoutingDataSource.onShard(shard, () -> {
+                int sum = 0;
+                int deleted;
+                do {
+                    deleted = outboxMapper.deleteSentBefore(before, CLEANUP_BATCH);
+                    sum += deleted;
+                } while (deleted == CLEANUP_BATCH);
+                return sum;
+            });
+            log.info("清理已投递的发件箱事件：{}条，分片：{}", total, shard == null ? "default" : shard);
+        }
+    }
+
+    /**
+     * 需要轮询的分片，未分库时只有默认数据源（null 表示不指定分片）
+     */
+    private List<String> shards() {
+        ShardRouter router = shardRouter.getIfAvailable();
+        return router == null ? Collections.singletonList(null) : router.getShardNames();
+    }
+
+    private Map<String, String> toRecord(OutboxEvent event) {
+        Map<String, String> record = new HashMap<>();
+        record.put("id", String.valueOf(event.getId()));
+        record.put("dedupKey", event.getDedupKey());
+        record.put("aggregateType", event.getAggregateType());
+        record.put("aggregateId", event.getAggregateId());
+        record.put("eventType", event.getEventType());
+        record.put("payload", event.getPayload());
+        return record;
+    }
+}
@@ -0,0 +1,155 @@
+package com.sky.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.event.MenuChangedEvent;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.properties.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 发件箱事件消费：每个节点都从头到尾读取同一个 Redis Stream（不使用消费组），
+ * 按 dedupKey 去重后以 Spring 事件的形式发布给本节点的监听器（@EventListener）。
+ * 单线程顺序消费，监听器同步执行，同一聚合的事件按投递顺序处理
+ */
+@Component
+@Slf4j
+public class OutboxStreamConsumer implements StreamListener<String, MapRecord<String, String, String>> {
+
+    // 可以经由发件箱投递的事件类型
+    private static final Map<String, Class<?>> EVENT_TYPES = new HashMap<>();
+
+    static {
+        EVENT_TYPES.put(MenuChangedEvent.class.getSimpleName(), MenuChangedEvent.class);
+    }
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private Map<String, Boolean> delivered;
+
+    // 开始消费的位置，在缓存预热之前记录
+    private String startId;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    /**
+     * 在容器初始化阶段记录 Stream 当前末尾：缓存预热（ApplicationRunner）在这之后才执行，
+     * 预热期间写入的事件都在这个位置之后，开始消费时会补上，不会丢失
+     */
+    @PostConstruct
+    public void markStart() {
+        startId = tailId();
+    }
+
+    /**
+     * 应用启动完成（缓存预热结束）后开始消费，从预热前记录的位置读取
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int capacity = outboxProperties.getDedupCapacity();
+        delivered = new LinkedHashMap<String, Boolean>(capacity * 4 / 3 + 1, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        container = StreamMessageListenerContainer.create(redisConnectionFactory,
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofMillis(outboxProperties.getStreamPollTimeoutMillis()))
+                        .batchSize(100)
+                        .errorHandler(this::onError)
+                        .build());
+        container.register(StreamMessageListenerContainer.StreamReadRequest
+                .builder(StreamOffset.create(OutboxRelay.STREAM_KEY, ReadOffset.from(startId)))
+                .cancelOnError(ex -> false)
+                .build(), this);
+        container.start();
+        log.info("开始消费发件箱事件，起始位置{}", startId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Override
+    public void onMessage(MapRecord<String, String, String> message) {
+        Map<String, String> record = message.getValue();
+        String dedupKey = record.get("dedupKey");
+        if (dedupKey != null && delivered.put(dedupKey, Boolean.TRUE) != null) {
+            log.debug("重复的发件箱事件：{}", dedupKey);
+            return;
+        }
+        Class<?> type = EVENT_TYPES.get(record.get("eventType"));
+        if (type == null) {
+            log.warn("未知的发件箱事件类型：{}", record.get("eventType"));
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(objectMapper.readValue(record.get("payload"), type));
+        } catch (Exception ex) {
+            log.error("处理发件箱事件失败：{}", record.get("id"), ex);
+        }
+    }
+
+    /**
+     * 读取失败（如 Redis 不可用）时等待一个轮询周期再重试，避免空转刷日志
+     */
+    private void onError(Throwable ex) {
+        log.warn("读取发件箱事件失败：{}", ex.getMessage());
+        try {
+            Thread.sleep(outboxProperties.getStreamPollTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String tailId() {
+        try {
+            List<MapRecord<String, Object, Object>> last = stringRedisTemplate.opsForStream()
+                    .reverseRange(OutboxRelay.STREAM_KEY, Range.unbounded(), RedisZSetCommands.Limit.limit().count(1));
+            if (last != null && !last.isEmpty()) {
+                return last.get(0).getId().getValue();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("读取发件箱 Stream 末尾失败，从头开始消费：{}", ex.getMessage());
+        }
+        return "0-0";
+    }
+}
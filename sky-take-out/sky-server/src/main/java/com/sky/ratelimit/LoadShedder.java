@@ -0,0 +1,97 @@
+package com.sky.ratelimit;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.stat.DruidDataSourceStatManager;
+import com.sky.properties.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 过载保护：节点处理中的请求数或等待数据库连接的线程数超过阈值时，新请求直接拒绝
+ * 早拒绝的请求不占用线程和连接，已经进入的请求延迟不会被拖垮
+ * 连接池状态由专用线程定时采样（包含分库时的所有 Druid 数据源），请求线程只读 volatile 字段；
+ * 不使用 @Scheduled：共用的调度线程在数据库压力大时会被其他定时任务占住，采样恰好在需要的时候滞后
+ */
+@Component
+@Slf4j
+public class LoadShedder {
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int poolWaitThreads;
+
+    private ScheduledExecutorService sampler;
+
+    @PostConstruct
+    public void init() {
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-shedder-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = rateLimitProperties.getShedding().getSampleIntervalMillis();
+        sampler.scheduleWithFixedDelay(this::samplePool, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sampler.shutdownNow();
+    }
+
+    /**
+     * 请求进入：未过载时计入处理中请求数并返回 true，过载时返回 false（不计入）
+     */
+    public boolean enter() {
+        RateLimitProperties.Shedding shedding = rateLimitProperties.getShedding();
+        int current = inFlight.incrementAndGet();
+        if (shedding.isEnabled() && (current > shedding.getMaxInFlight() || poolWaitThreads > shedding.getMaxPoolWaitThreads())) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 请求结束，只能与返回 true 的 enter 成对调用
+     */
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPoolWaitThreads() {
+        return poolWaitThreads;
+    }
+
+    // 任务抛出异常后 ScheduledExecutorService 不再调度，这里吞掉异常
+    private void samplePool() {
+        int waiting = 0;
+        try {
+            for (DruidDataSource dataSource : DruidDataSourceStatManager.getDruidDataSourceInstances()) {
+                waiting += dataSource.getWaitThreadCount();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("连接池状态采样失败：{}", ex.getMessage());
+            return;
+        }
+        int threshold = rateLimitProperties.getShedding().getMaxPoolWaitThreads();
+        if (waiting > threshold && poolWaitThreads <= threshold) {
+            log.warn("等待数据库连接的线程数 {} 超过阈值 {}，开始拒绝新请求", waiting, threshold);
+        }
+        poolWaitThreads = waiting;
+    }
+}
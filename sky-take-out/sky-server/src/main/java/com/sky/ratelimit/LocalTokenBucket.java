@@ -0,0 +1,52 @@
+package com.sky.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶（GCRA 算法）：只维护一个“理论到达时间”，取令牌就是把它向后推一个发放间隔，CAS 失败重试
+ * 理论到达时间超出当前时间一个桶容量对应的时长时，说明桶已空
+ */
+public class LocalTokenBucket {
+
+    // 发放一个令牌的间隔
+    private final long intervalNanos;
+
+    // 允许的突发量对应的时长
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    public LocalTokenBucket(int capacity, double permitsPerSecond) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param now System.nanoTime()
+     * @return 0 表示取到；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long waitNanos = next - now - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 桶已经装满并且闲置超过指定时长，可以回收
+     */
+    public boolean idleSince(long now, long idleNanos) {
+        return now - theoreticalArrival.get() > idleNanos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sky.ratelimit;
+
+import com.sky.properties.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流：按 接口 + 调用方（员工id，未登录时为 IP）分桶
+ * 先取本地令牌桶，保护本节点；开启 distributed 时再取 Redis 令牌桶，限制调用方在整个集群的速率
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private RedisTokenBucket redisTokenBucket;
+
+    private final Map<String, LocalTokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 尝试放行一次调用
+     *
+     * @param endpoint 接口路径模式
+     * @param caller   调用方标识，如 emp:1、ip:10.0.0.1
+     * @return 0 表示放行；否则为建议的重试等待纳秒数
+     */
+    public long tryAcquire(String endpoint, String caller) {
+        RateLimitProperties.Rule rule = rateLimitProperties.getRules().getOrDefault(endpoint, rateLimitProperties.getDefaultRule());
+        String key = endpoint + '|' + caller;
+
+        long waitNanos = buckets.computeIfAbsent(key, k -> new LocalTokenBucket(rule.getCapacity(), rule.getPermitsPerSecond()))
+                .tryAcquire(System.nanoTime());
+        if (waitNanos > 0 || !rateLimitProperties.isDistributed()) {
+            return waitNanos;
+        }
+
+        try {
+            return redisTokenBucket.tryAcquire(key, rule.getCapacity(), rule.getPermitsPerSecond());
+        } catch (RuntimeException ex) {
+            // Redis 不可用时放行，本地令牌桶仍然生效
+            log.warn("Redis 限流不可用，仅使用本地令牌桶：{}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 回收闲置的本地令牌桶，闲置桶已经装满，回收后重新创建等价于原状态
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(rateLimitProperties.getIdleEvictMillis());
+        buckets.values().removeIf(bucket -> bucket.idleSince(now, idleNanos));
+    }
+}
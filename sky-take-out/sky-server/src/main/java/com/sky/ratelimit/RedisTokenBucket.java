@@ -0,0 +1,52 @@
+package com.sky.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 令牌桶：与 LocalTokenBucket 同样的 GCRA 算法，在 Lua 脚本中用 Redis 时间计算，集群内所有节点共享
+ * 每个桶只占一个带过期时间的字符串键
+ */
+@Component
+public class RedisTokenBucket {
+
+    private static final String KEY_PREFIX = "rate:";
+
+    // ARGV[1] 发放间隔（微秒） ARGV[2] 突发时长（微秒），返回 0 表示取到，否则为需要等待的微秒数
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "redis.replicate_commands() "
+                    + "local t = redis.call('time') "
+                    + "local now = tonumber(t[1]) * 1000000 + tonumber(t[2]) "
+                    + "local interval = tonumber(ARGV[1]) "
+                    + "local arrival = tonumber(redis.call('get', KEYS[1]) or '0') "
+                    + "if arrival < now then arrival = now end "
+                    + "local nextArrival = arrival + interval "
+                    + "local wait = nextArrival - now - tonumber(ARGV[2]) "
+                    + "if wait > 0 then return wait end "
+                    + "redis.call('set', KEYS[1], string.format('%d', nextArrival), 'px', math.ceil((nextArrival - now) / 1000) + 1) "
+                    + "return 0", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 尝试从集群共享的桶中取一个令牌
+     *
+     * @param key
+     * @param capacity
+     * @param permitsPerSecond
+     * @return 0 表示取到；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String key, int capacity, double permitsPerSecond) {
+        long intervalMicros = (long) (TimeUnit.SECONDS.toMicros(1) / permitsPerSecond);
+        Long waitMicros = stringRedisTemplate.execute(ACQUIRE_SCRIPT, Collections.singletonList(KEY_PREFIX + key),
+                String.valueOf(intervalMicros), String.valueOf(intervalMicros * capacity));
+        return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+    }
+}
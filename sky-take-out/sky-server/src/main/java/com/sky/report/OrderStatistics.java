@@ -0,0 +1,99 @@
+package com.sky.report;
+
+import com.sky.context.BaseContext;
+import com.sky.dto.OrderCountDTO;
+import com.sky.entity.Orders;
+import com.sky.mapper.OrderMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 订单统计：按天的订单数和有效订单数（已完成）
+ * 1、区间内需要查询的日期用一条 GROUP BY DATE(order_time), status 一次取回，没有订单的日期在内存中补 0
+ * 2、两天前的日期订单状态不会再变化，结果按门店常驻内存（每天两个整数），之后不再查询；今天、昨天每次都查
+ */
+@Component
+public class OrderStatistics {
+
+    private static final Long DEFAULT_STORE = 0L;
+
+    private static final DayCount EMPTY = new DayCount(0, 0);
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    private final Map<Long, Map<LocalDate, DayCount>> closedDays = new ConcurrentHashMap<>();
+
+    /**
+     * 每天的订单数
+     *
+     * @param dates 连续的日期
+     * @return 与 dates 一一对应
+     */
+    public List<DayCount> count(List<LocalDate> dates) {
+        Map<LocalDate, DayCount> closed = closedDays.computeIfAbsent(storeKey(BaseContext.getStoreId()),
+                key -> new ConcurrentHashMap<>());
+        LocalDate openFrom = LocalDate.now().minusDays(1);
+
+        // 需要查询的日期：未关闭的日期和尚未缓存的已关闭日期，查询覆盖它们所在的最小区间
+        LocalDate from = null;
+        LocalDate to = null;
+        for (LocalDate date : dates) {
+            if (!date.isBefore(openFrom) || !closed.containsKey(date)) {
+                if (from == null) {
+                    from = date;
+                }
+                to = date;
+            }
+        }
+
+        Map<LocalDate, DayCount> loaded = new HashMap<>();
+        if (from != null) {
+            for (OrderCountDTO row : orderMapper.countByDateAndStatus(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                int valid = Orders.COMPLETED.equals(row.getStatus()) ? row.getCount() : 0;
+                loaded.merge(row.getDate(), new DayCount(row.getCount(), valid), DayCount::plus);
+            }
+        }
+
+        List<DayCount> counts = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            DayCount count;
+            if (from != null && !date.isBefore(from) && !date.isAfter(to)) {
+                count = loaded.getOrDefault(date, EMPTY);
+                if (date.isBefore(openFrom)) {
+                    closed.put(date, count);
+                }
+            } else {
+                count = closed.get(date);
+            }
+            counts.add(count);
+        }
+        return counts;
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? DEFAULT_STORE : storeId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DayCount {
+        // 订单数
+        private final int total;
+        // 有效订单数
+        private final int valid;
+
+        private DayCount plus(DayCount other) {
+            return new DayCount(total + other.total, valid + other.valid);
+        }
+    }
+}
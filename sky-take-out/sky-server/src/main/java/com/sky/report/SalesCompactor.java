@@ -0,0 +1,157 @@
+package com.sky.report;
+
+import com.sky.context.BaseContext;
+import com.sky.dto.DailySalesDTO;
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.mapper.OrderMapper;
+import com.sky.mapper.SalesDailyMapper;
+import com.sky.properties.SalesProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 销量汇总：把某天已完成订单的商品销量写入 sales_daily，之后的排行查询不再扫描订单明细
+ * 每晚汇总前两天（下单后次日才完成的订单会计入前一天），同时用汇总结果覆盖 Redis 中的排行，修正实时累加的偏差
+ */
+@Component
+@Slf4j
+public class SalesCompactor {
+
+    // 汇总表批量写入时每条语句的行数
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private SalesDailyMapper salesDailyMapper;
+
+    @Autowired
+    private SalesLedger salesLedger;
+
+    @Autowired
+    private SalesProperties salesProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${sky.sales.compact-cron:0 10 0 * * ?}")
+    public void compactRecentDays() {
+        LocalDate today = LocalDate.now();
+        Set<Long> stores;
+        try {
+            if (!salesLedger.tryLockCompaction(today, TimeUnit.HOURS.toSeconds(12))) {
+                return;
+            }
+            stores = salesLedger.stores();
+        } catch (Exception ex) {
+            log.error("读取销量排行门店失败，跳过本次汇总", ex);
+            return;
+        }
+        long ttlSeconds = TimeUnit.DAYS.toSeconds(salesProperties.getRetentionDays());
+        for (Long storeId : stores) {
+            // 定时任务没有请求上下文，按门店路由到门店所在的分片
+            BaseContext.setStoreId(storeId == 0L ? null : storeId);
+            try {
+                for (LocalDate date = today.minusDays(2); date.isBefore(today); date = date.plusDays(1)) {
+                    List<GoodsSalesDTO> sales = compact(date);
+                    // 昨天仍有订单在完成，加载标记只短时间有效
+                    long readySeconds = date.isBefore(today.minusDays(1)) ? ttlSeconds : salesProperties.getOpenDayReadySeconds();
+                    salesLedger.load(storeId, date, sales, orderMapper.selectCompletedIds(
+                            date.atStartOfDay(), date.plusDays(1).atStartOfDay()), ttlSeconds, readySeconds);
+                }
+                log.info("销量汇总完成，门店：{}", storeId);
+            } catch (Exception ex) {
+                log.error("销量汇总失败，门店：{}", storeId, ex);
+            } finally {
+                BaseContext.clear();
+            }
+        }
+    }
+
+    /**
+     * 汇总当前门店某天的销量并覆盖 sales_daily 中该天的数据
+     *
+     * @param date
+     * @return 汇总结果
+     */
+    public List<GoodsSalesDTO> compact(LocalDate date) {
+        List<GoodsSalesDTO> sales = orderMapper.sumSales(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        transactionTemplate.executeWithoutResult(status -> {
+            salesDailyMapper.deleteByDate(date);
+            if (!sales.isEmpty()) {
+                salesDailyMapper.insertBatch(date, sales, LocalDateTime.now());
+            }
+        });
+        return sales;
+    }
+
+    /**
+     * 读取当前门店多个已不再变化的日期（两天前及更早）的销量
+     * 汇总表一次区间查询；汇总表中没有的日期再用一条 GROUP BY 按订单汇总，并一次写入汇总表
+     *
+     * @param dates
+     * @return 日期 -> 销量，没有销量的日期不在结果中
+     */
+    public Map<LocalDate, List<GoodsSalesDTO>> closedDays(List<LocalDate> dates) {
+        LocalDate begin = Collections.min(dates);
+        LocalDate end = Collections.max(dates);
+        Map<LocalDate, List<GoodsSalesDTO>> result = group(salesDailyMapper.selectByDateRange(begin, end));
+
+        // 汇总表中没有的日期：可能从未汇总，也可能当天没有销量，按订单重新统计
+        LocalDate from = null;
+        LocalDate to = null;
+        for (LocalDate date : dates) {
+            if (!result.containsKey(date)) {
+                from = from == null || date.isBefore(from) ? date : from;
+                to = to == null || date.isAfter(to) ? date : to;
+            }
+        }
+        if (from == null) {
+            return result;
+        }
+        List<DailySalesDTO> compacted = new ArrayList<>();
+        for (DailySalesDTO sale : orderMapper.sumSalesByDate(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            if (!result.containsKey(sale.getDate())) {
+                compacted.add(sale);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < compacted.size(); i += BATCH_SIZE) {
+            salesDailyMapper.upsertBatch(compacted.subList(i, Math.min(i + BATCH_SIZE, compacted.size())), now);
+        }
+        result.putAll(group(compacted));
+        return result;
+    }
+
+    private Map<LocalDate, List<GoodsSalesDTO>> group(List<DailySalesDTO> sales) {
+        Map<LocalDate, List<GoodsSalesDTO>> result = new HashMap<>();
+        for (DailySalesDTO sale : sales) {
+            result.computeIfAbsent(sale.getDate(), date -> new ArrayList<>())
+                    .add(new GoodsSalesDTO(sale.getName(), sale.getNumber()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,215 @@
+package com.sky.report;
+
+import com.sky.dto.GoodsSalesDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Redis 中的每日销量排行：每个门店、日期一个 ZSET sales:{storeId}:{yyyyMMdd}，成员为商品名称，分数为销量
+ * sales:{storeId}:{yyyyMMdd}:orders 记录已计入的订单id，同一订单重复上报只计一次
+ * sales:{storeId}:{yyyyMMdd}:ready 表示该日期已从数据库加载，没有该标记的日期不接受实时累加，查询时先加载；
+ * 今天、昨天的标记只保留很短时间，到期后按数据库重新加载，实时累加漏掉或多计的订单不会一直留在排行中
+ * 多日排行用 ZUNIONSTORE 合并到 sales:{storeId}:top:{begin}:{end}，短时间缓存供看板轮询
+ */
+@Component
+public class SalesLedger {
+
+    private static final String KEY_PREFIX = "sales:";
+    private static final String STORES_KEY = "sales:stores";
+    private static final String COMPACT_LOCK_PREFIX = "sales:compact:";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // KEYS: 排行 ZSET、已计入订单、加载标记、门店集合  ARGV[1] 门店 ARGV[2] 订单id ARGV[3] 过期秒数 之后为 名称,销量 交替
+    // 返回 -1 该日期尚未加载，0 订单已计入，1 计入成功
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[3]) == 0 then return -1 end "
+                    + "if redis.call('sadd', KEYS[2], ARGV[2]) == 0 then return 0 end "
+                    + "redis.call('expire', KEYS[2], ARGV[3]) "
+                    + "for i = 4, #ARGV, 2 do redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i]) end "
+                    + "redis.call('sadd', KEYS[4], ARGV[1]) "
+                    + "return 1", Long.class);
+
+    // 用数据库中的数据覆盖某天的排行
+    // KEYS 同上  ARGV[1] 门店 ARGV[2] 过期秒数 ARGV[3] 加载标记有效秒数 ARGV[4] 订单数量 n，之后 n 个订单id，再之后为 名称,销量 交替
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('del', KEYS[1], KEYS[2]) "
+                    + "local n = tonumber(ARGV[4]) "
+                    + "for i = 5, 4 + n do redis.call('sadd', KEYS[2], ARGV[i]) end "
+                    + "for i = 5 + n, #ARGV, 2 do redis.call('zadd', KEYS[1], ARGV[i + 1], ARGV[i]) end "
+                    + "redis.call('expire', KEYS[1], ARGV[2]) "
+                    + "redis.call('expire', KEYS[2], ARGV[2]) "
+                    + "redis.call('set', KEYS[3], '1', 'EX', ARGV[3]) "
+                    + "redis.call('sadd', KEYS[4], ARGV[1]) "
+                    + "return 1", Long.class);
+
+    // KEYS[1] 合并结果，之后为 排行 ZSET、加载标记 交替  ARGV[1] 取前 n 名 ARGV[2] 合并结果缓存秒数
+    // 返回 {'missing', 未加载日期的序号...} 或 {'ok', 名称, 销量, ...}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOP_SCRIPT = new DefaultRedisScript<>(
+            "local n = tonumber(ARGV[1]) "
+                    + "if redis.call('exists', KEYS[1]) == 0 then "
+                    + "local missing = {'missing'} "
+                    + "local sources = {} "
+                    + "for i = 2, #KEYS, 2 do "
+                    + "if redis.call('exists', KEYS[i + 1]) == 0 then missing[#missing + 1] = tostring(i / 2 - 1) end "
+                    + "sources[#sources + 1] = KEYS[i] end "
+                    + "if #missing > 1 then return missing end "
+                    + "redis.call('zunionstore', KEYS[1], #sources, unpack(sources)) "
+                    + "redis.call('expire', KEYS[1], ARGV[2]) end "
+                    + "local result = {'ok'} "
+                    + "local top = redis.call('zrevrange', KEYS[1], 0, n - 1, 'withscores') "
+                    + "for i = 1, #top do result[#result + 1] = top[i] end "
+                    + "return result", List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 计入一个已完成订单的销量，同一订单只计一次
+     *
+     * @param storeId
+     * @param date        下单日期
+     * @param orderId
+     * @param sales       商品名称 -> 销量
+     * @param ttlSeconds
+     * @return false 表示该日期还没有从数据库加载（加载时会包含该订单），或订单已经计入
+     */
+    public boolean record(Long storeId, LocalDate date, Long orderId, Map<String, Integer> sales, long ttlSeconds) {
+        String dayKey = dayKey(storeId, date);
+        List<String> args = new ArrayList<>();
+        args.add(storeKey(storeId).toString());
+        args.add(orderId.toString());
+        args.add(String.valueOf(ttlSeconds));
+        sales.forEach((name, number) -> {
+            args.add(name);
+            args.add(number.toString());
+        });
+        Long result = stringRedisTemplate.execute(RECORD_SCRIPT,
+                Arrays.asList(dayKey, dayKey + ":orders", dayKey + ":ready", STORES_KEY), args.toArray());
+        return result != null && result == 1;
+    }
+
+    /**
+     * 用数据库中的销量覆盖某天的排行
+     *
+     * @param storeId
+     * @param date
+     * @param sales
+     * @param orderIds     当天已计入的订单id，之后不会再变化的日期可以为空
+     * @param ttlSeconds
+     * @param readySeconds 加载标记的有效时长，到期后查询时重新加载
+     */
+    public void load(Long storeId, LocalDate date, List<GoodsSalesDTO> sales, List<Long> orderIds, long ttlSeconds,
+                     long readySeconds) {
+        String dayKey = dayKey(storeId, date);
+        List<String> args = new ArrayList<>();
+        args.add(storeKey(storeId).toString());
+        args.add(String.valueOf(ttlSeconds));
+        args.add(String.valueOf(readySeconds));
+        args.add(String.valueOf(orderIds.size()));
+        for (Long orderId : orderIds) {
+            args.add(orderId.toString());
+        }
+        for (GoodsSalesDTO sale : sales) {
+            args.add(sale.getName());
+            args.add(sale.getNumber().toString());
+        }
+        stringRedisTemplate.execute(LOAD_SCRIPT,
+                Arrays.asList(dayKey, dayKey + ":orders", dayKey + ":ready", STORES_KEY), args.toArray());
+    }
+
+    /**
+     * 多日销量前 n 名，一次往返完成检查、合并和读取
+     *
+     * @param storeId
+     * @param dates              连续的日期，第一个为开始日期，最后一个为结束日期
+     * @param n
+     * @param unionTtlSeconds
+     * @return 有日期尚未加载时只返回这些日期
+     */
+    @SuppressWarnings("unchecked")
+    public Top top(Long storeId, List<LocalDate> dates, int n, long unionTtlSeconds) {
+        List<String> keys = new ArrayList<>();
+        keys.add(KEY_PREFIX + storeKey(storeId) + ":top:" + dates.get(0).format(DATE_FORMAT)
+                + ':' + dates.get(dates.size() - 1).format(DATE_FORMAT));
+        for (LocalDate date : dates) {
+            String dayKey = dayKey(storeId, date);
+            keys.add(dayKey);
+            keys.add(dayKey + ":ready");
+        }
+        List<Object> result = stringRedisTemplate.execute(TOP_SCRIPT, keys, String.valueOf(n), String.valueOf(unionTtlSeconds));
+        if (result == null || result.isEmpty()) {
+            return new Top(Collections.emptyList(), Collections.emptyList());
+        }
+        if ("missing".equals(result.get(0))) {
+            List<LocalDate> missing = new ArrayList<>();
+            for (int i = 1; i < result.size(); i++) {
+                missing.add(dates.get(Integer.parseInt(result.get(i).toString())));
+            }
+            return new Top(missing, Collections.emptyList());
+        }
+        List<GoodsSalesDTO> sales = new ArrayList<>();
+        for (int i = 1; i + 1 < result.size(); i += 2) {
+            sales.add(new GoodsSalesDTO(result.get(i).toString(), (int) Double.parseDouble(result.get(i + 1).toString())));
+        }
+        return new Top(Collections.emptyList(), sales);
+    }
+
+    /**
+     * 记录过排行的门店，供夜间汇总使用
+     *
+     * @return
+     */
+    public Set<Long> stores() {
+        Set<String> members = stringRedisTemplate.opsForSet().members(STORES_KEY);
+        if (members == null) {
+            return Collections.emptySet();
+        }
+        return members.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    /**
+     * 夜间汇总的互斥：同一天只由一个节点执行
+     *
+     * @param date
+     * @param ttlSeconds
+     * @return
+     */
+    public boolean tryLockCompaction(LocalDate date, long ttlSeconds) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                .setIfAbsent(COMPACT_LOCK_PREFIX + date.format(DATE_FORMAT), "1", ttlSeconds, TimeUnit.SECONDS));
+    }
+
+    private String dayKey(Long storeId, LocalDate date) {
+        return KEY_PREFIX + storeKey(storeId) + ':' + date.format(DATE_FORMAT);
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? 0L : storeId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Top {
+        // 尚未加载的日期
+        private final List<LocalDate> missing;
+        // 按销量从高到低
+        private final List<GoodsSalesDTO> sales;
+    }
+}
@@ -0,0 +1,201 @@
+package com.sky.report;
+
+import com.sky.dto.DateCountDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Redis 中的用户增长数据
+ * users:{storeId}:totals 累计用户数（前缀和）：ZSET，分数为日期（epochDay），成员为 "epochDay:截至当天的用户总数"，
+ * 只有有用户注册的日期才有成员，其他日期沿用之前最近一天的值，某天新增用户数为它与前一个值的差
+ * users:{storeId}:ready 表示累计用户数已从数据库回填，带过期时间，到期后重新回填
+ * users:{storeId}:active:{yyyyMMdd} 每日活跃用户的 HyperLogLog，固定 12KB，误差约 0.81%
+ */
+@Component
+public class UserMetrics {
+
+    private static final String KEY_PREFIX = "users:";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // KEYS: 累计用户数、回填标记  ARGV[1] 注册日期  返回 -1 尚未回填（回填时会包含该用户），1 计入成功
+    // 当天及之后日期的累计值都加一，通常只有当天；当天还没有成员时由之前最近一天的值加一生成
+    private static final RedisScript<Long> REGISTER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 0 then return -1 end "
+                    + "local day = tonumber(ARGV[1]) "
+                    + "local found = false "
+                    + "local later = redis.call('zrangebyscore', KEYS[1], day, '+inf', 'withscores') "
+                    + "for i = 1, #later, 2 do "
+                    + "local d = tonumber(later[i + 1]) "
+                    + "local total = tonumber(string.match(later[i], ':(%d+)$')) "
+                    + "redis.call('zrem', KEYS[1], later[i]) "
+                    + "redis.call('zadd', KEYS[1], d, d .. ':' .. (total + 1)) "
+                    + "if d == day then found = true end end "
+                    + "if not found then "
+                    + "local prev = redis.call('zrevrangebyscore', KEYS[1], day - 1, '-inf', 'limit', 0, 1) "
+                    + "local total = 1 "
+                    + "if #prev > 0 then total = tonumber(string.match(prev[1], ':(%d+)$')) + 1 end "
+                    + "redis.call('zadd', KEYS[1], day, day .. ':' .. total) end "
+                    + "return 1", Long.class);
+
+    // 用数据库中的每日注册数重建累计用户数
+    // KEYS 同上  ARGV[1] 回填标记有效秒数，之后为 注册日期,注册数 交替（日期升序）
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('del', KEYS[1]) "
+                    + "local total = 0 "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "total = total + tonumber(ARGV[i + 1]) "
+                    + "redis.call('zadd', KEYS[1], ARGV[i], ARGV[i] .. ':' .. total) end "
+                    + "redis.call('set', KEYS[2], '1', 'EX', ARGV[1]) "
+                    + "return 1", Long.class);
+
+    // KEYS[1] 累计用户数 KEYS[2] 回填标记，之后为每天的日活 HyperLogLog  ARGV[1] 开始日期 ARGV[2] 结束日期
+    // 返回 {'missing'} 或 {'ok', 开始日期前的用户总数, 区间内成员数 n, n 个成员, 每天的日活...}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RANGE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 0 then return {'missing'} end "
+                    + "local result = {'ok', '0'} "
+                    + "local prev = redis.call('zrevrangebyscore', KEYS[1], tonumber(ARGV[1]) - 1, '-inf', 'limit', 0, 1) "
+                    + "if #prev > 0 then result[2] = string.match(prev[1], ':(%d+)$') end "
+                    + "local days = redis.call('zrangebyscore', KEYS[1], ARGV[1], ARGV[2]) "
+                    + "result[3] = tostring(#days) "
+                    + "for i = 1, #days do result[#result + 1] = days[i] end "
+                    + "for i = 3, #KEYS do result[#result + 1] = tostring(redis.call('pfcount', KEYS[i])) end "
+                    + "return result", List.class);
+
+    // KEYS[1] 当天日活  ARGV[1] 用户id ARGV[2] 保留秒数
+    private static final RedisScript<Long> ACTIVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('pfadd', KEYS[1], ARGV[1]) "
+                    + "redis.call('expire', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 计入一个新注册的用户
+     *
+     * @param storeId
+     * @param date    注册日期
+     * @return false 表示尚未回填，回填时会包含该用户
+     */
+    public boolean register(Long storeId, LocalDate date) {
+        Long result = stringRedisTemplate.execute(REGISTER_SCRIPT,
+                Arrays.asList(totalsKey(storeId), readyKey(storeId)), String.valueOf(date.toEpochDay()));
+        return result != null && result == 1;
+    }
+
+    /**
+     * 用数据库中的每日注册数覆盖累计用户数
+     *
+     * @param storeId
+     * @param counts       每日注册数，日期升序
+     * @param readySeconds 回填结果的有效时长
+     */
+    public void load(Long storeId, List<DateCountDTO> counts, long readySeconds) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(readySeconds));
+        for (DateCountDTO count : counts) {
+            args.add(String.valueOf(count.getDate().toEpochDay()));
+            args.add(count.getCount().toString());
+        }
+        stringRedisTemplate.execute(LOAD_SCRIPT, Arrays.asList(totalsKey(storeId), readyKey(storeId)), args.toArray());
+    }
+
+    /**
+     * 记录用户当天活跃
+     *
+     * @param storeId
+     * @param date
+     * @param userId
+     * @param retentionSeconds
+     */
+    public void active(Long storeId, LocalDate date, Long userId, long retentionSeconds) {
+        stringRedisTemplate.execute(ACTIVE_SCRIPT, Arrays.asList(activeKey(storeId, date)),
+                userId.toString(), String.valueOf(retentionSeconds));
+    }
+
+    /**
+     * 日期区间内每天的用户总数、新增用户数和日活，一次往返
+     *
+     * @param storeId
+     * @param dates   连续的日期
+     * @return 尚未回填时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public Growth growth(Long storeId, List<LocalDate> dates) {
+        List<String> keys = new ArrayList<>();
+        keys.add(totalsKey(storeId));
+        keys.add(readyKey(storeId));
+        for (LocalDate date : dates) {
+            keys.add(activeKey(storeId, date));
+        }
+        List<Object> result = stringRedisTemplate.execute(RANGE_SCRIPT, keys,
+                String.valueOf(dates.get(0).toEpochDay()), String.valueOf(dates.get(dates.size() - 1).toEpochDay()));
+        if (result == null || !"ok".equals(result.get(0))) {
+            return null;
+        }
+
+        long total = Long.parseLong(result.get(1).toString());
+        int n = Integer.parseInt(result.get(2).toString());
+        long[] totals = new long[dates.size()];
+        long[] newUsers = new long[dates.size()];
+        long[] actives = new long[dates.size()];
+        long first = dates.get(0).toEpochDay();
+        int member = 0;
+        for (int i = 0; i < dates.size(); i++) {
+            long previous = total;
+            // 成员按日期升序，取出落在当天的成员，没有时沿用前一天的总数
+            while (member < n) {
+                String value = result.get(3 + member).toString();
+                int colon = value.indexOf(':');
+                if (Long.parseLong(value.substring(0, colon)) > first + i) {
+                    break;
+                }
+                total = Long.parseLong(value.substring(colon + 1));
+                member++;
+            }
+            totals[i] = total;
+            newUsers[i] = total - previous;
+            actives[i] = Long.parseLong(result.get(3 + n + i).toString());
+        }
+        return new Growth(totals, newUsers, actives);
+    }
+
+    private String totalsKey(Long storeId) {
+        return KEY_PREFIX + storeKey(storeId) + ":totals";
+    }
+
+    private String readyKey(Long storeId) {
+        return KEY_PREFIX + storeKey(storeId) + ":ready";
+    }
+
+    private String activeKey(Long storeId, LocalDate date) {
+        return KEY_PREFIX + storeKey(storeId) + ":active:" + date.format(DATE_FORMAT);
+    }
+
+    private Long storeKey(Long storeId) {
+        return storeId == null ? 0L : storeId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Growth {
+        // 每天结束时的用户总数
+        private final long[] totals;
+        // 每天的新增用户数
+        private final long[] newUsers;
+        // 每天的活跃用户数（估算值）
+        private final long[] actives;
+    }
+}
@@ -3,6 +3,7 @@ package com.sky.service;
 import com.sky.dto.CategoryDTO;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.json.SerializedPayload;
 import com.sky.result.PageResult;
 
 import java.util.List;
@@ -19,4 +20,12 @@ public interface CategoryService {
     void editStatus(Integer status, Long id);
 
     List<Category> getByType(Integer type);
+
+    /**
+     * 根据类型查询分类，返回缓存的、已序列化好的 Result 响应体
+     *
+     * @param type
+     * @return
+     */
+    SerializedPayload getByTypeSerialized(Integer type);
 }
@@ -17,4 +17,12 @@ public interface DishService {
     DishVO getById(Long id);
 
     void modifyDish(DishDTO dishDTO);
+
+    /**
+     * 用户端：查询分类下起售的菜品及其口味
+     *
+     * @param categoryId
+     * @return
+     */
+    List<DishVO> listWithFlavors(Long categoryId);
 }
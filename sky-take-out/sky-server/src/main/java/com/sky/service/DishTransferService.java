@@ -0,0 +1,35 @@
+package com.sky.service;
+
+import com.sky.vo.DishImportResultVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 菜品批量导入、导出
+ */
+public interface DishTransferService {
+
+    String FORMAT_CSV = "csv";
+    String FORMAT_JSONL = "jsonl";
+
+    /**
+     * 流式读取 CSV / JSON Lines 数据，按批写入菜品及口味
+     *
+     * @param in
+     * @param format
+     * @return 逐行的导入结果
+     * @throws IOException
+     */
+    DishImportResultVO importDishes(InputStream in, String format) throws IOException;
+
+    /**
+     * 流式导出全部菜品及口味，格式与导入一致
+     *
+     * @param out
+     * @param format
+     * @throws IOException
+     */
+    void exportDishes(OutputStream out, String format) throws IOException;
+}
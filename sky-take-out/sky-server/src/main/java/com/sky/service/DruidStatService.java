@@ -0,0 +1,14 @@
+package com.sky.service;
+
+import java.util.Map;
+
+public interface DruidStatService {
+
+    /**
+     * 连接池、SQL（按总耗时倒序取前 limit 条）、防火墙统计
+     *
+     * @param limit
+     * @return
+     */
+    Map<String, Object> stat(int limit);
+}
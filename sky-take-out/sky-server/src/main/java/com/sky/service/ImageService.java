@@ -0,0 +1,43 @@
+package com.sky.service;
+
+import com.sky.vo.UploadQueueHealthVO;
+import com.sky.vo.UploadStatusVO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface ImageService {
+
+    /**
+     * 上传文件：按内容哈希命名去重，图片额外在后台生成固定尺寸的缩略图
+     *
+     * @param file
+     * @return 文件访问路径
+     * @throws IOException
+     */
+    String upload(MultipartFile file) throws IOException;
+
+    /**
+     * 异步上传：文件写入本地暂存目录后立即返回最终访问路径，由后台队列上传到 OSS
+     *
+     * @param file
+     * @return 文件访问路径，上传完成前访问会 404，可通过 getStatus 查询进度
+     * @throws IOException
+     */
+    String uploadAsync(MultipartFile file) throws IOException;
+
+    /**
+     * 查询异步上传状态
+     *
+     * @param objectName
+     * @return
+     */
+    UploadStatusVO getStatus(String objectName);
+
+    /**
+     * 异步上传队列状况
+     *
+     * @return
+     */
+    UploadQueueHealthVO health();
+}
@@ -0,0 +1,15 @@
+package com.sky.service;
+
+import com.sky.dto.EmployeeLoginDTO;
+import com.sky.entity.Employee;
+
+public interface LoginService {
+
+    /**
+     * 员工登录：校验失败次数、密码、账号状态，必要时迁移密码哈希
+     *
+     * @param employeeLoginDTO
+     * @return 只包含 id、用户名、姓名、状态的员工信息
+     */
+    Employee login(EmployeeLoginDTO employeeLoginDTO);
+}
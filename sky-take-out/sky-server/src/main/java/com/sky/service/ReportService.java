@@ -0,0 +1,61 @@
+package com.sky.service;
+
+import com.sky.vo.OrderReportVO;
+import com.sky.vo.SalesTop10ReportVO;
+import com.sky.vo.UserReportVO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface ReportService {
+
+    /**
+     * 统计指定日期区间内销量排名前10的商品
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    SalesTop10ReportVO getSalesTop10(LocalDate begin, LocalDate end);
+
+    /**
+     * 订单完成后计入销量排行，在事务中调用时提交后才计入
+     *
+     * @param orderId
+     */
+    void recordCompletedOrder(Long orderId);
+
+    /**
+     * 统计指定日期区间内每天的用户总数、新增用户数和日活
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    UserReportVO getUserStatistics(LocalDate begin, LocalDate end);
+
+    /**
+     * 用户注册后计入用户统计，在事务中调用时提交后才计入
+     * 供用户端注册（微信登录首次建档）调用，累计用户数因此实时增加，不依赖重新回填
+     *
+     * @param userId
+     * @param createTime 注册时间
+     */
+    void recordNewUser(Long userId, LocalDateTime createTime);
+
+    /**
+     * 记录用户当天活跃（登录或下单时调用）
+     *
+     * @param userId
+     */
+    void recordActiveUser(Long userId);
+
+    /**
+     * 统计指定日期区间内每天的订单数、有效订单数和订单完成率
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    OrderReportVO getOrderStatistics(LocalDate begin, LocalDate end);
+}
@@ -0,0 +1,22 @@
+package com.sky.service;
+
+import com.sky.json.SerializedPayload;
+
+public interface SetmealService {
+
+    /**
+     * 用户端：查询分类下起售的套餐及其菜品，返回缓存的、已序列化好的 Result 响应体
+     *
+     * @param categoryId
+     * @return
+     */
+    SerializedPayload listCombos(Long categoryId);
+
+    /**
+     * 用户端：查询套餐包含的菜品，返回缓存的、已序列化好的 Result 响应体
+     *
+     * @param id
+     * @return
+     */
+    SerializedPayload getDishItems(Long id);
+}
@@ -0,0 +1,49 @@
+package com.sky.service;
+
+import com.sky.dto.DishStockDTO;
+import com.sky.dto.StockReservationDTO;
+import com.sky.vo.DishStockVO;
+import com.sky.vo.StockReservationVO;
+
+import java.time.LocalDate;
+
+public interface StockService {
+
+    /**
+     * 设置菜品某天的库存，没有设置库存的菜品不限量
+     *
+     * @param dishStockDTO
+     */
+    void setDailyStock(DishStockDTO dishStockDTO);
+
+    /**
+     * 查询菜品某天的库存
+     *
+     * @param dishId
+     * @param date
+     * @return
+     */
+    DishStockVO getDailyStock(Long dishId, LocalDate date);
+
+    /**
+     * 下单时预占当日库存，任一菜品不足时整体失败
+     *
+     * @param stockReservationDTO
+     * @return
+     */
+    StockReservationVO reserve(StockReservationDTO stockReservationDTO);
+
+    /**
+     * 取消订单时释放预占的库存
+     *
+     * @param reservationId
+     */
+    void release(String reservationId);
+
+    /**
+     * 订单支付成功后确认预占，库存不再归还
+     *
+     * @param reservationId
+     */
+    void confirm(String reservationId);
+}
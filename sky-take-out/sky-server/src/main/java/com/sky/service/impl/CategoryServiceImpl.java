@@ -2,22 +2,26 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CategoryListCache;
+import com.sky.cache.MenuDependencyIndex;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.context.BaseContext;
 import com.sky.dto.CategoryDTO;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.event.MenuChangedEvent;
 import com.sky.exception.DeletionNotAllowedException;
+import com.sky.json.SerializedPayload;
 import com.sky.mapper.CategoryMapper;
-import com.sky.mapper.DishMapper;
-import com.sky.mapper.SetmealMapper;
+import com.sky.outbox.OutboxPublisher;
 import com.sky.result.PageResult;
 import com.sky.service.CategoryService;
 import io.swagger.models.auth.In;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -30,12 +34,16 @@ public class CategoryServiceImpl implements CategoryService {
     private CategoryMapper categoryMapper;
 
     @Autowired
-    private DishMapper dishMapper;
+    private OutboxPublisher outboxPublisher;
 
     @Autowired
-    private SetmealMapper setmealMapper;
+    private CategoryListCache categoryListCache;
+
+    @Autowired
+    private MenuDependencyIndex menuDependencyIndex;
 
     @Override
+    @Transactional
     public void save(CategoryDTO categoryDTO) {
         Category category = new Category();
         BeanUtils.copyProperties(categoryDTO, category);
@@ -49,6 +57,7 @@ public class CategoryServiceImpl implements CategoryService {
 //        category.setUpdateUser(BaseContext.getCurrentId());
 
         categoryMapper.insert(category);
+        publishMenuChanged(null);
 
     }
 
@@ -68,17 +77,25 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        Integer count = dishMapper.countByCategoryId(id);
-        if(count>0)
+        //内存中的关联索引只用于快速拒绝，有关联时不查库
+        if (menuDependencyIndex.countDishes(id) > 0)
             throw new DeletionNotAllowedException(MessageConstant.CATEGORY_BE_RELATED_BY_DISH);
-        count = setmealMapper.countByCategoryId(id);
-        if(count>0)
+        if (menuDependencyIndex.countSetmeals(id) > 0)
+            throw new DeletionNotAllowedException(MessageConstant.CATEGORY_BE_RELATED_BY_SETMEAL);
+        //索引没有关联不代表可以删除（其他节点刚写入的数据可能还没同步过来），放行以数据库为准：事务内一条 SQL 确认
+        int referenceKind = categoryMapper.selectReferenceKind(id);
+        if (referenceKind == 1)
+            throw new DeletionNotAllowedException(MessageConstant.CATEGORY_BE_RELATED_BY_DISH);
+        if (referenceKind == 2)
             throw new DeletionNotAllowedException(MessageConstant.CATEGORY_BE_RELATED_BY_SETMEAL);
         categoryMapper.deleteById(id);
+        publishMenuChanged(id);
     }
 
     @Override
+    @Transactional
     public void edit(CategoryDTO categoryDTO) {
         Category category = new Category();
         BeanUtils.copyProperties(categoryDTO, category);
@@ -86,15 +103,18 @@ public class CategoryServiceImpl implements CategoryService {
 //        category.setUpdateUser(BaseContext.getCurrentId());
 //        category.setUpdateTime(LocalDateTime.now());
         categoryMapper.update(category);
+        publishMenuChanged(category.getId());
     }
 
     @Override
+    @Transactional
     public void editStatus(Integer status, Long id) {
         Category category = Category.builder()
                 .status(status)
                 .id(id)
                 .build();
         categoryMapper.update(category);
+        publishMenuChanged(id);
     }
 
     @Override
@@ -102,4 +122,20 @@ public class CategoryServiceImpl implements CategoryService {
 
         return categoryMapper.selectByType(type);
     }
+
+    @Override
+    public SerializedPayload getByTypeSerialized(Integer type) {
+        return categoryListCache.get(type);
+    }
+
+    /**
+     * 在当前事务中写入菜单变化事件，通知菜单快照重建受影响的分类
+     *
+     * @param id
+     */
+    private void publishMenuChanged(Long id) {
+        List<Long> categoryIds = id == null ? Collections.emptyList() : Collections.singletonList(id);
+        outboxPublisher.publish(MenuChangedEvent.AGGREGATE_TYPE, BaseContext.getStoreId(),
+                new MenuChangedEvent(null, categoryIds, BaseContext.getStoreId()));
+    }
 }
@@ -2,18 +2,26 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.DishDetailCache;
+import com.sky.cache.MenuDependencyIndex;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
+import com.sky.context.BaseContext;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
 import com.sky.entity.DishFlavor;
+import com.sky.event.MenuChangedEvent;
 import com.sky.exception.DeletionNotAllowedException;
+import com.sky.exception.DishNotFoundException;
 import com.sky.mapper.DishFlavorMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.outbox.OutboxPublisher;
+import com.sky.properties.ImageProperties;
 import com.sky.result.PageResult;
 import com.sky.service.DishService;
+import com.sky.utils.ImageVariantResolver;
 import com.sky.vo.DishVO;
 import io.swagger.annotations.ApiModelProperty;
 import org.springframework.beans.BeanUtils;
@@ -22,7 +30,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class DishServiceImpl implements DishService {
@@ -36,6 +50,21 @@ public class DishServiceImpl implements DishService {
     @Autowired
     private SetmealMapper setmealMapper;
 
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private MenuDependencyIndex menuDependencyIndex;
+
+    @Autowired
+    private DishDetailCache dishDetailCache;
+
+    @Autowired
+    private ImageVariantResolver imageVariantResolver;
+
+    @Autowired
+    private ImageProperties imageProperties;
+
     @Override
     @Transactional
     public void save(DishDTO dishDTO) {
@@ -55,6 +84,7 @@ public class DishServiceImpl implements DishService {
             dishFlavorMapper.insertBatch(dishFlavors);
         }
 
+        publishMenuChanged(Collections.singletonList(id), dishDTO.getCategoryId());
 
     }
 
@@ -63,6 +93,9 @@ public class DishServiceImpl implements DishService {
         PageHelper.startPage(dto.getPage(), dto.getPageSize());
 
         Page<DishVO> page = dishMapper.page(dto);
+        page.getResult().forEach(dishVO ->
+                dishVO.setThumbnail(imageVariantResolver.resolve(dishVO.getImage(), imageProperties.getListWidth())));
+        fillFlavors(page.getResult());
 
         return new PageResult(page.getTotal(), page.getResult());
     }
@@ -76,53 +109,162 @@ public class DishServiceImpl implements DishService {
         - 被套餐关联的菜品不能删除
         - 删除菜品后，关联的口味数据也需要删除掉
         * */
+        Set<Long> categoryIds = new HashSet<>();
         for (Long id : ids) {
             // 判断菜品状态
             Dish dish = dishMapper.selectById(id);
+            categoryIds.add(dish.getCategoryId());
             if (dish.getStatus() == StatusConstant.ENABLE) {
                 throw new DeletionNotAllowedException(MessageConstant.DISH_ON_SALE);
             }
 
-            List<Long> setmealIds = setmealMapper.selectByDishId(id);
-            if (setmealIds != null && !setmealIds.isEmpty()) {
+            if (menuDependencyIndex.isDishInSetmeal(id)) {
                 throw new DeletionNotAllowedException(MessageConstant.DISH_BE_RELATED_BY_SETMEAL);
             }
         }
+        // 索引只用于快速拒绝，放行以数据库为准：索引可能还没收到其他节点刚写入的关系，真正删除前用一条 SQL 确认整批菜品
+        if (!setmealMapper.selectDishRefs(ids).isEmpty()) {
+            throw new DeletionNotAllowedException(MessageConstant.DISH_BE_RELATED_BY_SETMEAL);
+        }
         // 批量删除
         for (Long id : ids) {
             dishMapper.deleteById(id);
             dishFlavorMapper.deleteByDish(id);
         }
 
+        outboxPublisher.publish(MenuChangedEvent.AGGREGATE_TYPE, BaseContext.getStoreId(),
+                new MenuChangedEvent(ids, categoryIds, BaseContext.getStoreId()));
     }
 
     @Override
     public DishVO getById(Long id) {
-        DishVO dishVO = new DishVO();
-        Dish dish = dishMapper.selectById(id);
-        BeanUtils.copyProperties(dish, dishVO);
+        // 同一菜品的并发查询合并为一次，结果按门店缓存，菜品变化时失效
+        return dishDetailCache.get(id, () -> loadById(id));
+    }
 
-        List<DishFlavor> list = dishFlavorMapper.selectByDishId(id);
-        dishVO.setFlavors(list);
+    // 菜品不存在时抛出异常，不缓存空结果
+    private DishVO loadById(Long id) {
+        DishVO dishVO = dishMapper.selectByIdWithFlavors(id);
+        if (dishVO == null) {
+            throw new DishNotFoundException(MessageConstant.DISH_NOT_FOUND);
+        }
         return dishVO;
     }
 
+    @Override
+    public List<DishVO> listWithFlavors(Long categoryId) {
+        List<DishVO> list = new ArrayList<>();
+        for (Dish dish : dishMapper.selectEnabled(categoryId)) {
+            DishVO dishVO = new DishVO();
+            BeanUtils.copyProperties(dish, dishVO);
+            dishVO.setThumbnail(imageVariantResolver.resolve(dishVO.getImage(), imageProperties.getListWidth()));
+            list.add(dishVO);
+        }
+        fillFlavors(list);
+        return list;
+    }
+
+    /**
+     * 一条 SQL 查出一批菜品的全部口味，在内存中按菜品分组填充，避免逐个菜品查询口味
+     *
+     * @param dishes
+     */
+    private void fillFlavors(List<DishVO> dishes) {
+        if (dishes.isEmpty()) {
+            return;
+        }
+        List<Long> dishIds = new ArrayList<>(dishes.size());
+        for (DishVO dishVO : dishes) {
+            dishIds.add(dishVO.getId());
+        }
+        Map<Long, List<DishFlavor>> flavors = new HashMap<>();
+        for (DishFlavor flavor : dishFlavorMapper.selectByDishIds(dishIds)) {
+            flavors.computeIfAbsent(flavor.getDishId(), key -> new ArrayList<>()).add(flavor);
+        }
+        for (DishVO dishVO : dishes) {
+            dishVO.setFlavors(flavors.getOrDefault(dishVO.getId(), new ArrayList<>()));
+        }
+    }
+
     @Override
     @Transactional
     public void modifyDish(DishDTO dishDTO) {
         Dish dish = new Dish();
         BeanUtils.copyProperties(dishDTO, dish);
         dishMapper.update(dish);
-        dishFlavorMapper.deleteByDish(dish.getId());
-        //重新插入口味数据
-        List<DishFlavor> flavors = dishDTO.getFlavors();
-        if (flavors != null && !flavors.isEmpty()) {
-            flavors.forEach(dishFlavor -> {
-                dishFlavor.setDishId(dishDTO.getId());
-            });
-            //向口味表插入n条数据
-            dishFlavorMapper.insertBatch(flavors);
+        //只同步有变化的口味，避免每次都删除后全部重新插入
+        updateFlavors(dish.getId(), dishDTO.getFlavors());
+
+        publishMenuChanged(Collections.singletonList(dish.getId()), dishDTO.getCategoryId());
+    }
+
+    /**
+     * 对比数据库中现有的口味，计算出需要新增、修改、删除的口味，分别用一条 SQL 批量执行
+     * 前端提交的口味优先按 id 匹配，没有 id 时按口味名称匹配；名称和数据都没变的口味不做任何操作
+     *
+     * @param dishId
+     * @param flavors
+     */
+    private void updateFlavors(Long dishId, List<DishFlavor> flavors) {
+        List<DishFlavor> current = dishFlavorMapper.selectByDishId(dishId);
+        Map<Long, DishFlavor> currentById = new HashMap<>();
+        Map<String, DishFlavor> currentByName = new HashMap<>();
+        for (DishFlavor flavor : current) {
+            currentById.put(flavor.getId(), flavor);
+            currentByName.putIfAbsent(flavor.getName(), flavor);
+        }
+
+        List<DishFlavor> inserts = new ArrayList<>();
+        List<DishFlavor> updates = new ArrayList<>();
+        Set<Long> matched = new HashSet<>();
+        if (flavors != null) {
+            for (DishFlavor flavor : flavors) {
+                flavor.setDishId(dishId);
+                DishFlavor existing = flavor.getId() == null ? null : currentById.get(flavor.getId());
+                if (existing == null || matched.contains(existing.getId())) {
+                    existing = currentByName.get(flavor.getName());
+                }
+                if (existing == null || matched.contains(existing.getId())) {
+                    flavor.setId(null);
+                    inserts.add(flavor);
+                    continue;
+                }
+                matched.add(existing.getId());
+                if (!Objects.equals(existing.getName(), flavor.getName()) || !Objects.equals(existing.getValue(), flavor.getValue())) {
+                    flavor.setId(existing.getId());
+                    updates.add(flavor);
+                }
+            }
         }
+
+        List<Long> deletes = new ArrayList<>();
+        for (DishFlavor flavor : current) {
+            if (!matched.contains(flavor.getId())) {
+                deletes.add(flavor.getId());
+            }
+        }
+
+        if (!deletes.isEmpty()) {
+            dishFlavorMapper.deleteByIds(deletes);
+        }
+        if (!updates.isEmpty()) {
+            dishFlavorMapper.updateBatch(updates);
+        }
+        if (!inserts.isEmpty()) {
+            dishFlavorMapper.insertBatch(inserts);
+        }
+    }
+
+    /**
+     * 在当前事务中写入菜单变化事件，事务提交后经发件箱投递，各节点增量重建菜单快照
+     *
+     * @param dishIds
+     * @param categoryId
+     */
+    private void publishMenuChanged(List<Long> dishIds, Long categoryId) {
+        List<Long> categoryIds = categoryId == null ? Collections.emptyList() : Collections.singletonList(categoryId);
+        outboxPublisher.publish(MenuChangedEvent.AGGREGATE_TYPE, BaseContext.getStoreId(),
+                new MenuChangedEvent(dishIds, categoryIds, BaseContext.getStoreId()));
     }
 
 
@@ -0,0 +1,403 @@
+package com.sky.service.impl;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.cache.TableVersions;
+import com.sky.constant.CategoryConstant;
+import com.sky.constant.MessageConstant;
+import com.sky.constant.StatusConstant;
+import com.sky.context.BaseContext;
+import com.sky.dto.DishTransferDTO;
+import com.sky.entity.Category;
+import com.sky.entity.Dish;
+import com.sky.entity.DishFlavor;
+import com.sky.event.MenuChangedEvent;
+import com.sky.exception.BaseException;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.mapper.CategoryMapper;
+import com.sky.mapper.DishFlavorMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.OutboxMapper;
+import com.sky.outbox.OutboxPublisher;
+import com.sky.properties.DishImportProperties;
+import com.sky.service.DishTransferService;
+import com.sky.utils.CsvUtil;
+import com.sky.vo.DishImportResultVO;
+import com.sky.vo.DishVO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class DishTransferServiceImpl implements DishTransferService {
+
+    private static final String[] CSV_HEADER = {"name", "categoryName", "price", "image", "description", "status", "flavors"};
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private DishMapper dishMapper;
+
+    @Autowired
+    private DishImportProperties dishImportProperties;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private final ObjectMapper exportObjectMapper = new JacksonObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    // BATCH 执行器：不能注册为 Bean，否则会替换 MyBatis 自动配置的默认 SqlSessionTemplate
+    private SqlSessionTemplate batchSqlSession;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public DishImportResultVO importDishes(InputStream in, String format) throws IOException {
+        boolean csv = isCsv(format);
+
+        // 分类、已有菜品名称一次性加载到内存，逐行校验时不再访问数据库
+        Map<Long, Category> categoriesById = new HashMap<>();
+        Map<String, Category> categoriesByName = new HashMap<>();
+        for (Category category : categoryMapper.selectAllByType(CategoryConstant.DISH_TYPE)) {
+            categoriesById.put(category.getId(), category);
+            categoriesByName.put(category.getName(), category);
+        }
+        Set<String> names = new HashSet<>(dishMapper.selectAllNames());
+
+        ImportContext context = new ImportContext();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> header = null;
+        List<ImportRow> batch = new ArrayList<>(dishImportProperties.getBatchSize());
+        String line;
+        // lineNo 为当前记录的起始行号，CSV 记录的引号内换行会跨多行
+        long lineNo;
+        long nextLineNo = 1;
+        while ((line = csv ? CsvUtil.readRecord(reader) : reader.readLine()) != null) {
+            lineNo = nextLineNo;
+            nextLineNo += 1 + lineBreaks(line);
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (csv && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+            context.result.setTotal(context.result.getTotal() + 1);
+
+            DishTransferDTO dto;
+            try {
+                dto = csv ? parseCsvRow(line, header) : objectMapper.readValue(line, DishTransferDTO.class);
+            } catch (Exception ex) {
+                context.fail(lineNo, null, MessageConstant.DATA_FORMAT_ERROR);
+                continue;
+            }
+
+            Category category = dto.getCategoryId() != null
+                    ? categoriesById.get(dto.getCategoryId())
+                    : categoriesByName.get(dto.getCategoryName());
+            String error = validate(dto, category, names);
+            if (error != null) {
+                context.fail(lineNo, dto.getName(), error);
+                continue;
+            }
+            names.add(dto.getName());
+            batch.add(toImportRow(lineNo, dto, category, context.now));
+
+            if (batch.size() >= dishImportProperties.getBatchSize()) {
+                writeBatch(batch, context);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, context);
+        }
+
+        log.info("菜品批量导入完成，共{}行，成功{}行，失败{}行", context.result.getTotal(),
+                context.result.getSuccess(), context.result.getFailed());
+        return context.result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportDishes(OutputStream out, String format) throws IOException {
+        boolean csv = isCsv(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write('\n');
+        }
+
+        try (Cursor<DishVO> cursor = dishMapper.selectAllForExport()) {
+            for (DishVO dishVO : cursor) {
+                DishTransferDTO dto = new DishTransferDTO();
+                BeanUtils.copyProperties(dishVO, dto, "flavors");
+                List<DishFlavor> flavors = new ArrayList<>();
+                for (DishFlavor flavor : dishVO.getFlavors()) {
+                    flavors.add(DishFlavor.builder().name(flavor.getName()).value(flavor.getValue()).build());
+                }
+                dto.setFlavors(flavors);
+
+                if (csv) {
+                    writer.write(CsvUtil.escape(dto.getName()));
+                    writer.write(',');
+                    writer.write(CsvUtil.escape(dto.getCategoryName()));
+                    writer.write(',');
+                    writer.write(CsvUtil.escape(dto.getPrice() == null ? null : dto.getPrice().toPlainString()));
+                    writer.write(',');
+                    writer.write(CsvUtil.escape(dto.getImage()));
+                    writer.write(',');
+                    writer.write(CsvUtil.escape(dto.getDescription()));
+                    writer.write(',');
+                    writer.write(CsvUtil.escape(dto.getStatus()));
+                    writer.write(',');
+                    writer.write(CsvUtil.escape(exportObjectMapper.writeValueAsString(flavors)));
+                } else {
+                    writer.write(exportObjectMapper.writeValueAsString(dto));
+                }
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * 一批数据一个事务：菜品用 JDBC batch 插入并回填自增 id，口味用一条多值 insert
+     * 整批失败时逐行重试，只把真正出错的行记入错误明细
+     */
+    private void writeBatch(List<ImportRow> batch, ImportContext context) {
+        Long storeId = BaseContext.getStoreId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertRows(batch, storeId));
+            context.succeed(batch);
+            return;
+        } catch (RuntimeException ex) {
+            log.warn("菜品批量写入失败，逐行重试：{}", NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        }
+
+        for (ImportRow row : batch) {
+            List<ImportRow> single = Collections.singletonList(row);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertRows(single, storeId));
+                context.succeed(single);
+            } catch (RuntimeException ex) {
+                log.warn("菜品导入第{}行写入失败：{}", row.line, NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                context.fail(row.line, row.dish.getName(), errorMessage(ex));
+            }
+        }
+    }
+
+    // 返回给客户端的错误信息，不暴露数据库原始报错（表名、约束名、SQL）
+    private String errorMessage(RuntimeException ex) {
+        if (ex instanceof DuplicateKeyException) {
+            return MessageConstant.DISH_NAME_EXISTS;
+        }
+        if (ex instanceof DataIntegrityViolationException) {
+            return MessageConstant.DISH_DATA_INVALID;
+        }
+        return MessageConstant.UNKNOWN_ERROR;
+    }
+
+    private void insertRows(List<ImportRow> rows, Long storeId) {
+        // 直接通过 BATCH 会话获取的 Mapper 不经过 AutoFillAspect，公共字段已在 toImportRow 中填充
+        DishMapper batchDishMapper = batchSqlSession.getMapper(DishMapper.class);
+        for (ImportRow row : rows) {
+            row.dish.setId(null);
+            batchDishMapper.insert(row.dish);
+        }
+        batchSqlSession.flushStatements();
+
+        List<DishFlavor> flavors = new ArrayList<>();
+        for (ImportRow row : rows) {
+            for (DishFlavor flavor : row.flavors) {
+                flavor.setId(null);
+                flavor.setDishId(row.dish.getId());
+                flavors.add(flavor);
+            }
+        }
+        if (!flavors.isEmpty()) {
+            batchSqlSession.getMapper(DishFlavorMapper.class).insertBatch(flavors);
+        }
+
+        // 菜单变化事件与本批数据同一事务写入发件箱（同一事务中不能切换执行器，使用 BATCH 会话的 Mapper）
+        Set<Long> categoryIds = rows.stream().map(row -> row.dish.getCategoryId()).collect(Collectors.toSet());
+        outboxPublisher.publish(batchSqlSession.getMapper(OutboxMapper.class), MenuChangedEvent.AGGREGATE_TYPE, storeId,
+                new MenuChangedEvent(null, categoryIds, storeId));
+        batchSqlSession.flushStatements();
+        // BATCH 会话的 Mapper 不经过 TableVersionAspect，手动递增表版本号（事务提交后生效）
+        tableVersions.bump(storeId, "dish", "dish_flavor");
+    }
+
+    private ImportRow toImportRow(long lineNo, DishTransferDTO dto, Category category, LocalDateTime now) {
+        Long empId = BaseContext.getCurrentId();
+        Dish dish = Dish.builder()
+                .name(dto.getName())
+                .categoryId(category.getId())
+                .price(dto.getPrice())
+                .image(dto.getImage())
+                .description(dto.getDescription())
+                .status(dto.getStatus() == null ? StatusConstant.DISABLE : dto.getStatus())
+                .createTime(now)
+                .updateTime(now)
+                .createUser(empId)
+                .updateUser(empId)
+                .build();
+        List<DishFlavor> flavors = dto.getFlavors() == null ? Collections.emptyList() : dto.getFlavors();
+        return new ImportRow(lineNo, dish, flavors);
+    }
+
+    private String validate(DishTransferDTO dto, Category category, Set<String> names) {
+        if (dto.getName() == null || dto.getName().trim().isEmpty()) {
+            return MessageConstant.DISH_NAME_REQUIRED;
+        }
+        if (names.contains(dto.getName())) {
+            return MessageConstant.DISH_NAME_EXISTS;
+        }
+        if (dto.getPrice() == null || dto.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            return MessageConstant.DISH_PRICE_INVALID;
+        }
+        if (category == null) {
+            return MessageConstant.CATEGORY_NOT_FOUND;
+        }
+        return null;
+    }
+
+    private long lineBreaks(String record) {
+        long count = 0;
+        for (int i = record.indexOf('\n'); i >= 0; i = record.indexOf('\n', i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = CsvUtil.parseLine(line);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        return header;
+    }
+
+    private DishTransferDTO parseCsvRow(String line, Map<String, Integer> header) throws IOException {
+        List<String> fields = CsvUtil.parseLine(line);
+        DishTransferDTO dto = new DishTransferDTO();
+        dto.setName(column(fields, header, "name"));
+        String categoryId = column(fields, header, "categoryId");
+        dto.setCategoryId(categoryId == null ? null : Long.valueOf(categoryId));
+        dto.setCategoryName(column(fields, header, "categoryName"));
+        String price = column(fields, header, "price");
+        dto.setPrice(price == null ? null : new BigDecimal(price));
+        dto.setImage(column(fields, header, "image"));
+        dto.setDescription(column(fields, header, "description"));
+        String status = column(fields, header, "status");
+        dto.setStatus(status == null ? null : Integer.valueOf(status));
+        String flavors = column(fields, header, "flavors");
+        if (flavors != null) {
+            dto.setFlavors(objectMapper.readValue(flavors, new TypeReference<List<DishFlavor>>() {
+            }));
+        }
+        return dto;
+    }
+
+    private String column(List<String> fields, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private boolean isCsv(String format) {
+        if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            return true;
+        }
+        if (FORMAT_JSONL.equalsIgnoreCase(format)) {
+            return false;
+        }
+        throw new BaseException(MessageConstant.FORMAT_NOT_SUPPORTED);
+    }
+
+    private static class ImportRow {
+        private final long line;
+        private final Dish dish;
+        private final List<DishFlavor> flavors;
+
+        private ImportRow(long line, Dish dish, List<DishFlavor> flavors) {
+            this.line = line;
+            this.dish = dish;
+            this.flavors = flavors;
+        }
+    }
+
+    /**
+     * 一次导入过程中的累计结果
+     */
+    private class ImportContext {
+        private final DishImportResultVO result = new DishImportResultVO(0, 0, 0, new ArrayList<>());
+        private final LocalDateTime now = LocalDateTime.now();
+
+        private void succeed(List<ImportRow> rows) {
+            result.setSuccess(result.getSuccess() + rows.size());
+        }
+
+        private void fail(long line, String name, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < dishImportProperties.getMaxReportedErrors()) {
+                result.getErrors().add(new DishImportResultVO.RowError(line, name, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sky.service.impl;
+
+import com.alibaba.druid.stat.DruidStatManagerFacade;
+import com.sky.service.DruidStatService;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class DruidStatServiceImpl implements DruidStatService {
+
+    @Override
+    public Map<String, Object> stat(int limit) {
+        DruidStatManagerFacade facade = DruidStatManagerFacade.getInstance();
+
+        // SQL 统计按总耗时倒序，只返回最耗时的部分
+        List<Map<String, Object>> sql = facade.getSqlStatDataList((Integer) null).stream()
+                .sorted(Comparator.comparingLong((Map<String, Object> item) -> toLong(item.get("TotalTime"))).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        Map<String, Object> stat = new LinkedHashMap<>();
+        // 包含 WaitThreadCount、NotEmptyWaitCount、NotEmptyWaitMillis 等连接池等待指标
+        stat.put("dataSources", facade.getDataSourceStatDataList());
+        stat.put("sql", sql);
+        stat.put("wall", facade.getWallStatMap(null));
+        return stat;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
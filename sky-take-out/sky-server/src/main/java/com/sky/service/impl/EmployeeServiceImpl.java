@@ -2,6 +2,7 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.EmployeePrincipalCache;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.PasswordConstant;
 import com.sky.constant.StatusConstant;
@@ -10,17 +11,15 @@ import com.sky.dto.EmployeeDTO;
 import com.sky.dto.EmployeeLoginDTO;
 import com.sky.dto.EmployeePageQueryDTO;
 import com.sky.entity.Employee;
-import com.sky.exception.AccountLockedException;
-import com.sky.exception.AccountNotFoundException;
-import com.sky.exception.PasswordErrorException;
 import com.sky.mapper.EmployeeMapper;
 import com.sky.result.PageResult;
 import com.sky.service.EmployeeService;
+import com.sky.service.LoginService;
+import com.sky.utils.PasswordUtil;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,6 +30,15 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Autowired
     private EmployeeMapper employeeMapper;
 
+    @Autowired
+    private LoginService loginService;
+
+    @Autowired
+    private EmployeePrincipalCache employeePrincipalCache;
+
+    @Autowired
+    private PasswordUtil passwordUtil;
+
     /**
      * 员工登录
      *
@@ -38,32 +46,8 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @return
      */
     public Employee login(EmployeeLoginDTO employeeLoginDTO) {
-        String username = employeeLoginDTO.getUsername();
-        String password = employeeLoginDTO.getPassword();
-
-        //1、根据用户名查询数据库中的数据
-        Employee employee = employeeMapper.getByUsername(username);
-
-        //2、处理各种异常情况（用户名不存在、密码不对、账号被锁定）
-        if (employee == null) {
-            //账号不存在
-            throw new AccountNotFoundException(MessageConstant.ACCOUNT_NOT_FOUND);
-        }
-
-        //密码比对
-        password = DigestUtils.md5DigestAsHex(password.getBytes());
-        if (!password.equals(employee.getPassword())) {
-            //密码错误
-            throw new PasswordErrorException(MessageConstant.PASSWORD_ERROR);
-        }
-
-        if (employee.getStatus() == StatusConstant.DISABLE) {
-            //账号被锁定
-            throw new AccountLockedException(MessageConstant.ACCOUNT_LOCKED);
-        }
-
-        //3、返回实体对象
-        return employee;
+        //登录逻辑（缓存、失败计数、密码校验与迁移）统一由 LoginService 处理
+        return loginService.login(employeeLoginDTO);
     }
 
     // 新增员工
@@ -76,7 +60,9 @@ public class EmployeeServiceImpl implements EmployeeService {
 
         // 设置默认属性值:状态、密码、创建修改时间
         employee.setStatus(StatusConstant.ENABLE);
-        employee.setPassword(DigestUtils.md5DigestAsHex(PasswordConstant.DEFAULT_PASSWORD.getBytes()));
+        employee.setPassword(passwordUtil.encode(PasswordConstant.DEFAULT_PASSWORD));
+        // 新员工属于当前管理员令牌中的门店
+        employee.setStoreId(BaseContext.getStoreId());
 //        employee.setCreateTime(LocalDateTime.now());
 //        employee.setUpdateTime(LocalDateTime.now());
 //
@@ -115,6 +101,7 @@ public class EmployeeServiceImpl implements EmployeeService {
                 .build();
 
         employeeMapper.update(employee);
+        evictPrincipal(id);
     }
 
     @Override
@@ -128,7 +115,20 @@ public class EmployeeServiceImpl implements EmployeeService {
         BeanUtils.copyProperties(employeeDTO, employee);
 //        employee.setUpdateUser(BaseContext.getCurrentId());
 //        employee.setUpdateTime(LocalDateTime.now());
+        Employee old = employeeMapper.selectById(employee.getId());
         employeeMapper.update(employee);
+        //用户名可能被修改，新旧用户名的缓存都要清理
+        if (old != null) {
+            employeePrincipalCache.evict(old.getUsername());
+        }
+        employeePrincipalCache.evict(employee.getUsername());
+    }
+
+    private void evictPrincipal(Long id) {
+        Employee employee = employeeMapper.selectById(id);
+        if (employee != null) {
+            employeePrincipalCache.evict(employee.getUsername());
+        }
     }
 
 }
@@ -0,0 +1,256 @@
+package com.sky.service.impl;
+
+import com.sky.properties.ImageProperties;
+import com.sky.service.ImageService;
+import com.sky.upload.ImageVariantRegistry;
+import com.sky.upload.OssTransferQueue;
+import com.sky.utils.AliOssUtil;
+import com.sky.utils.ImageVariantResolver;
+import com.sky.vo.UploadQueueHealthVO;
+import com.sky.vo.UploadStatusVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class ImageServiceImpl implements ImageService {
+
+    private static final long TRANSFER_CHUNK = 64 * 1024;
+
+    @Autowired
+    private AliOssUtil aliOssUtil;
+
+    @Autowired
+    private ImageVariantResolver imageVariantResolver;
+
+    @Autowired
+    private ImageProperties imageProperties;
+
+    @Autowired
+    private ImageVariantRegistry imageVariantRegistry;
+
+    @Autowired
+    @Qualifier("imageProcessExecutor")
+    private ThreadPoolTaskExecutor imageProcessExecutor;
+
+    @Autowired
+    private OssTransferQueue ossTransferQueue;
+
+    @Override
+    public String upload(MultipartFile file) throws IOException {
+        //1、边读取边计算内容哈希，文件名 = 哈希 + 原扩展名
+        MessageDigest digest = sha256();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.max(file.getSize(), 32));
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            StreamUtils.copy(in, buffer);
+        }
+        String hash = toHex(digest.digest());
+        String objectName = hash + extension(file.getOriginalFilename());
+
+        //2、相同内容已经上传过，直接复用；之前没有生成缩略图（如异步上传时失败）的补生成
+        if (aliOssUtil.exists(objectName)) {
+            log.info("文件已存在，直接复用：{}", objectName);
+            if (!imageVariantRegistry.isReady(hash)) {
+                byte[] bytes = buffer.toByteArray();
+                imageProcessExecutor.execute(() -> generateThumbnails(hash, bytes));
+            }
+            return aliOssUtil.getUrl(objectName);
+        }
+
+        //3、上传原图，缩略图交给图片处理线程池（队列满时由当前线程执行，保证缩略图一定生成）
+        byte[] bytes = buffer.toByteArray();
+        String url = aliOssUtil.upload(bytes, objectName);
+        imageProcessExecutor.execute(() -> generateThumbnails(hash, bytes));
+        return url;
+    }
+
+    @Override
+    public String uploadAsync(MultipartFile file) throws IOException {
+        //1、用 NIO 把上传内容写入暂存目录的临时文件，同时计算内容哈希
+        Path part = Files.createTempFile(ossTransferQueue.getSpoolDir(), "upload-", OssTransferQueue.PART_SUFFIX);
+        MessageDigest digest = sha256();
+        try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(file.getInputStream(), digest));
+             FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        String hash = toHex(digest.digest());
+        String objectName = hash + extension(file.getOriginalFilename());
+
+        //2、交给后台队列上传，上传成功后生成缩略图
+        ossTransferQueue.submit(objectName, part, thumbnailsAfterUpload(hash));
+
+        //3、文件名由内容决定，访问路径可以立即返回
+        return aliOssUtil.getUrl(objectName);
+    }
+
+    @Override
+    public UploadStatusVO getStatus(String objectName) {
+        return ossTransferQueue.getStatus(objectName);
+    }
+
+    @Override
+    public UploadQueueHealthVO health() {
+        return ossTransferQueue.health();
+    }
+
+    /**
+     * 启动完成后继续上传暂存目录中遗留的文件
+     *
+     * @throws IOException
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeSpooled() throws IOException {
+        int resumed = ossTransferQueue.resume(this::thumbnailsAfterUploadOf);
+        if (resumed > 0) {
+            log.info("继续上传暂存目录中的文件：{}个", resumed);
+        }
+    }
+
+    /**
+     * 定时重新提交重试用完仍失败的文件
+     *
+     * @throws IOException
+     */
+    @Scheduled(initialDelayString = "${sky.upload.failed-retry-interval-millis:600000}",
+            fixedDelayString = "${sky.upload.failed-retry-interval-millis:600000}")
+    public void requeueFailed() throws IOException {
+        int requeued = ossTransferQueue.requeue(this::thumbnailsAfterUploadOf);
+        if (requeued > 0) {
+            log.info("重新提交上传失败的文件：{}个", requeued);
+        }
+    }
+
+    private Consumer<Path> thumbnailsAfterUploadOf(String objectName) {
+        int dot = objectName.indexOf('.');
+        return thumbnailsAfterUpload(dot < 0 ? objectName : objectName.substring(0, dot));
+    }
+
+    private Consumer<Path> thumbnailsAfterUpload(String hash) {
+        return file -> {
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                imageProcessExecutor.execute(() -> generateThumbnails(hash, bytes));
+            } catch (IOException e) {
+                log.error("读取暂存文件失败，跳过缩略图：{}", file, e);
+            }
+        };
+    }
+
+    /**
+     * 按配置的宽度生成缩略图，原图比目标宽度小时不放大，但仍按该宽度命名，保证记录后每个宽度的变体路径都存在
+     *
+     * @param hash
+     * @param bytes
+     */
+    private void generateThumbnails(String hash, byte[] bytes) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (source == null) {
+                // 不是图片，不需要缩略图
+                return;
+            }
+            for (Integer width : imageVariantResolver.getWidths()) {
+                int targetWidth = Math.min(width, source.getWidth());
+                int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+                BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = target.createGraphics();
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // 透明背景填充为白色
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, targetWidth, targetHeight);
+                graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+                graphics.dispose();
+
+                aliOssUtil.upload(encode(target), imageVariantResolver.variantName(hash, width));
+            }
+            // 全部尺寸上传成功后才记录，之后缩略图路径才会生效
+            imageVariantRegistry.markReady(hash);
+        } catch (Exception ex) {
+            log.error("缩略图生成失败：{}", hash, ex);
+        }
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(imageVariantResolver.getFormat()).next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                param.setCompressionType(param.getCompressionTypes()[0]);
+            }
+            param.setCompressionQuality(imageProperties.getThumbnailQuality());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private String extension(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        return originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase();
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,151 @@
+package com.sky.service.impl;
+
+import com.sky.cache.EmployeePrincipalCache;
+import com.sky.constant.MessageConstant;
+import com.sky.constant.StatusConstant;
+import com.sky.context.BaseContext;
+import com.sky.dto.EmployeeLoginDTO;
+import com.sky.entity.Employee;
+import com.sky.exception.AccountLockedException;
+import com.sky.exception.AccountNotFoundException;
+import com.sky.exception.LoginFailedException;
+import com.sky.exception.PasswordErrorException;
+import com.sky.mapper.EmployeeMapper;
+import com.sky.properties.LoginProperties;
+import com.sky.service.LoginService;
+import com.sky.shard.StoreRegistry;
+import com.sky.utils.PasswordUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Slf4j
+public class LoginServiceImpl implements LoginService {
+
+    private static final String FAILED_KEY_PREFIX = "login:failed:";
+
+    @Autowired
+    private EmployeePrincipalCache employeePrincipalCache;
+
+    @Autowired
+    private EmployeeMapper employeeMapper;
+
+    @Autowired
+    private PasswordUtil passwordUtil;
+
+    @Autowired
+    private LoginProperties loginProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private StoreRegistry storeRegistry;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    @Override
+    public Employee login(EmployeeLoginDTO employeeLoginDTO) {
+        String username = employeeLoginDTO.getUsername();
+        String password = employeeLoginDTO.getPassword();
+
+        //1、门店不存在直接拒绝；连续失败次数超过上限，直接拒绝，不再消耗哈希计算
+        Long storeId = BaseContext.getStoreId();
+        if (!storeRegistry.exists(storeId)) {
+            throw new LoginFailedException(MessageConstant.STORE_NOT_FOUND);
+        }
+        String failedKey = FAILED_KEY_PREFIX + (storeId == null ? "" : storeId + ":") + username;
+        String failed = stringRedisTemplate.opsForValue().get(failedKey);
+        if (failed != null && Integer.parseInt(failed) >= loginProperties.getMaxFailedAttempts()) {
+            throw new AccountLockedException(MessageConstant.LOGIN_TOO_MANY_ATTEMPTS);
+        }
+
+        //2、从缓存获取登录信息
+        Employee employee = employeePrincipalCache.get(username);
+        if (employee == null) {
+            throw new AccountNotFoundException(MessageConstant.ACCOUNT_NOT_FOUND);
+        }
+
+        //3、在专用线程池中校验密码，需要迁移时顺带计算新哈希
+        String storedPassword = employee.getPassword();
+        PasswordCheck check = verify(password, storedPassword);
+        if (!check.matched) {
+            Long count = stringRedisTemplate.opsForValue().increment(failedKey);
+            if (count != null && count == 1) {
+                stringRedisTemplate.expire(failedKey, loginProperties.getLockMinutes(), TimeUnit.MINUTES);
+            }
+            throw new PasswordErrorException(MessageConstant.PASSWORD_ERROR);
+        }
+
+        if (employee.getStatus() == StatusConstant.DISABLE) {
+            throw new AccountLockedException(MessageConstant.ACCOUNT_LOCKED);
+        }
+
+        //门店以员工记录为准，请求的门店必须是员工所属的门店
+        if (!Objects.equals(employee.getStoreId(), storeId)) {
+            log.warn("员工{}不属于门店{}", employee.getId(), storeId);
+            throw new LoginFailedException(MessageConstant.ACCOUNT_STORE_MISMATCH);
+        }
+
+        //4、登录成功：清除失败计数，迁移旧格式的密码
+        if (failed != null) {
+            stringRedisTemplate.delete(failedKey);
+        }
+        if (check.rehashed != null) {
+            employeeMapper.updatePassword(employee.getId(), check.rehashed);
+            employeePrincipalCache.evict(username);
+            log.info("员工密码哈希已迁移：{}", employee.getId());
+        }
+
+        employee.setPassword(null);
+        return employee;
+    }
+
+    private PasswordCheck verify(String password, String storedPassword) {
+        Future<PasswordCheck> future;
+        try {
+            future = passwordHashExecutor.submit(() -> {
+                PasswordCheck check = new PasswordCheck();
+                check.matched = passwordUtil.matches(password, storedPassword);
+                if (check.matched && passwordUtil.needsRehash(storedPassword)) {
+                    check.rehashed = passwordUtil.encode(password);
+                }
+                return check;
+            });
+        } catch (TaskRejectedException ex) {
+            log.warn("密码校验线程池已满，拒绝登录请求");
+            throw new LoginFailedException(MessageConstant.LOGIN_BUSY);
+        }
+
+        try {
+            return future.get(loginProperties.getHashTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new LoginFailedException(MessageConstant.LOGIN_BUSY);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LoginFailedException(MessageConstant.LOGIN_FAILED);
+        } catch (ExecutionException ex) {
+            log.error("密码校验失败", ex.getCause());
+            throw new LoginFailedException(MessageConstant.LOGIN_FAILED);
+        }
+    }
+
+    private static class PasswordCheck {
+        private boolean matched;
+        private String rehashed;
+    }
+}
@@ -0,0 +1,334 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.context.BaseContext;
+import com.sky.dto.DateCountDTO;
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import com.sky.exception.ReportBusinessException;
+import com.sky.mapper.OrderDetailMapper;
+import com.sky.mapper.OrderMapper;
+import com.sky.mapper.UserMapper;
+import com.sky.properties.ReportProperties;
+import com.sky.properties.SalesProperties;
+import com.sky.properties.UserMetricsProperties;
+import com.sky.report.OrderStatistics;
+import com.sky.report.SalesCompactor;
+import com.sky.report.SalesLedger;
+import com.sky.report.UserMetrics;
+import com.sky.service.ReportService;
+import com.sky.vo.OrderReportVO;
+import com.sky.vo.SalesTop10ReportVO;
+import com.sky.vo.UserReportVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ReportServiceImpl implements ReportService {
+
+    private static final int TOP_SIZE = 10;
+
+    // 加载缺失日期后重新合并的次数，超过后（日期在加载后又立刻过期）直接查库
+    private static final int MAX_LOAD_ROUNDS = 2;
+
+    @Autowired
+    private SalesLedger salesLedger;
+
+    @Autowired
+    private SalesCompactor salesCompactor;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private OrderDetailMapper orderDetailMapper;
+
+    @Autowired
+    private SalesProperties salesProperties;
+
+    @Autowired
+    private ReportProperties reportProperties;
+
+    @Autowired
+    private UserMetrics userMetrics;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserMetricsProperties userMetricsProperties;
+
+    @Autowired
+    private OrderStatistics orderStatistics;
+
+    /**
+     * 统计指定日期区间内销量排名前10的商品
+     * 每日销量在 Redis ZSET 中，多日排行用 ZUNIONSTORE 合并，不再扫描订单明细
+     * 未加载的日期先从汇总表（今天、昨天从订单）加载；Redis 不可用时退回到直接查库
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    @Override
+    public SalesTop10ReportVO getSalesTop10(LocalDate begin, LocalDate end) {
+        List<LocalDate> dates = dateRange(begin, end);
+
+        List<GoodsSalesDTO> top;
+        try {
+            top = topFromLedger(dates);
+        } catch (RuntimeException ex) {
+            log.warn("读取 Redis 销量排行失败，改为直接查询订单：{}", ex.getMessage());
+            top = null;
+        }
+        if (top == null) {
+            top = orderMapper.sumSales(begin.atStartOfDay(), end.plusDays(1).atStartOfDay()).stream()
+                    .sorted((a, b) -> Integer.compare(b.getNumber(), a.getNumber()))
+                    .limit(TOP_SIZE)
+                    .collect(Collectors.toList());
+        }
+
+        return SalesTop10ReportVO.builder()
+                .nameList(top.stream().map(GoodsSalesDTO::getName).collect(Collectors.joining(",")))
+                .numberList(top.stream().map(sale -> sale.getNumber().toString()).collect(Collectors.joining(",")))
+                .build();
+    }
+
+    /**
+     * 订单完成后计入销量排行
+     * 只有已从数据库加载过的日期接受累加，未加载的日期下次查询时加载，已包含该订单
+     * Redis 写入失败只记录日志：今天、昨天的排行由夜间汇总按订单重新计算
+     *
+     * @param orderId
+     */
+    @Override
+    public void recordCompletedOrder(Long orderId) {
+        Orders order = orderMapper.selectById(orderId);
+        if (order == null || !Orders.COMPLETED.equals(order.getStatus()) || order.getOrderTime() == null) {
+            return;
+        }
+        Map<String, Integer> sales = new LinkedHashMap<>();
+        for (OrderDetail detail : orderDetailMapper.selectByOrderId(orderId)) {
+            sales.merge(detail.getName(), detail.getNumber(), Integer::sum);
+        }
+        if (sales.isEmpty()) {
+            return;
+        }
+        Long storeId = BaseContext.getStoreId();
+        LocalDate date = order.getOrderTime().toLocalDate();
+        afterCommit(() -> {
+            try {
+                salesLedger.record(storeId, date, orderId, sales, retentionSeconds());
+            } catch (RuntimeException ex) {
+                log.warn("订单{}计入销量排行失败：{}", orderId, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 统计指定日期区间内每天的用户总数、新增用户数和日活
+     * 用户总数是 Redis 中按日期维护的前缀和，一次往返取出区间前的总数和区间内的变化，与用户数量无关
+     * Redis 中没有时按注册日期 GROUP BY 一次回填；Redis 不可用时直接用这次查询的结果，日活为 0
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    @Override
+    public UserReportVO getUserStatistics(LocalDate begin, LocalDate end) {
+        List<LocalDate> dates = dateRange(begin, end);
+        Long storeId = BaseContext.getStoreId();
+
+        UserMetrics.Growth growth;
+        try {
+            growth = userMetrics.growth(storeId, dates);
+            if (growth == null) {
+                userMetrics.load(storeId, userMapper.countByCreateDate(LocalDate.now().plusDays(1).atStartOfDay()),
+                        TimeUnit.HOURS.toSeconds(userMetricsProperties.getReloadHours()));
+                growth = userMetrics.growth(storeId, dates);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("读取 Redis 用户统计失败，改为直接查询用户表：{}", ex.getMessage());
+            growth = null;
+        }
+        if (growth == null) {
+            growth = growthFromDatabase(dates);
+        }
+
+        return UserReportVO.builder()
+                .dateList(dates.stream().map(LocalDate::toString).collect(Collectors.joining(",")))
+                .totalUserList(join(growth.getTotals()))
+                .newUserList(join(growth.getNewUsers()))
+                .activeUserList(join(growth.getActives()))
+                .build();
+    }
+
+    /**
+     * 用户注册后计入累计用户数
+     * 尚未回填时忽略，回填时会包含该用户；遗漏的注册在回填结果到期重新回填时修正
+     *
+     * @param userId
+     * @param createTime 注册时间
+     */
+    @Override
+    public void recordNewUser(Long userId, LocalDateTime createTime) {
+        Long storeId = BaseContext.getStoreId();
+        LocalDate date = createTime.toLocalDate();
+        afterCommit(() -> {
+            try {
+                userMetrics.register(storeId, date);
+            } catch (RuntimeException ex) {
+                log.warn("用户{}计入用户统计失败：{}", userId, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 记录用户当天活跃，失败只记录日志，不影响调用方
+     *
+     * @param userId
+     */
+    @Override
+    public void recordActiveUser(Long userId) {
+        try {
+            userMetrics.active(BaseContext.getStoreId(), LocalDate.now(), userId,
+                    TimeUnit.DAYS.toSeconds(userMetricsProperties.getActiveRetentionDays()));
+        } catch (RuntimeException ex) {
+            log.warn("记录用户{}活跃失败：{}", userId, ex.getMessage());
+        }
+    }
+
+    /**
+     * 统计指定日期区间内每天的订单数、有效订单数和订单完成率
+     * 区间只扫描一次（两天前的日期常驻内存，不再查询），不再每天两条 count
+     *
+     * @param begin
+     * @param end
+     * @return
+     */
+    @Override
+    public OrderReportVO getOrderStatistics(LocalDate begin, LocalDate end) {
+        List<LocalDate> dates = dateRange(begin, end);
+        List<OrderStatistics.DayCount> counts = orderStatistics.count(dates);
+
+        int totalOrderCount = counts.stream().mapToInt(OrderStatistics.DayCount::getTotal).sum();
+        int validOrderCount = counts.stream().mapToInt(OrderStatistics.DayCount::getValid).sum();
+        double orderCompletionRate = totalOrderCount == 0 ? 0.0 : (double) validOrderCount / totalOrderCount;
+
+        return OrderReportVO.builder()
+                .dateList(dates.stream().map(LocalDate::toString).collect(Collectors.joining(",")))
+                .orderCountList(counts.stream().map(count -> String.valueOf(count.getTotal())).collect(Collectors.joining(",")))
+                .validOrderCountList(counts.stream().map(count -> String.valueOf(count.getValid())).collect(Collectors.joining(",")))
+                .totalOrderCount(totalOrderCount)
+                .validOrderCount(validOrderCount)
+                .orderCompletionRate(orderCompletionRate)
+                .build();
+    }
+
+    private List<LocalDate> dateRange(LocalDate begin, LocalDate end) {
+        if (begin == null || end == null || end.isBefore(begin)
+                || ChronoUnit.DAYS.between(begin, end) >= reportProperties.getMaxRangeDays()) {
+            throw new ReportBusinessException(MessageConstant.REPORT_DATE_RANGE_INVALID);
+        }
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = begin; !date.isAfter(end); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    // 在事务中时提交后执行，否则立即执行
+    private void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private UserMetrics.Growth growthFromDatabase(List<LocalDate> dates) {
+        LocalDate end = dates.get(dates.size() - 1);
+        long[] totals = new long[dates.size()];
+        long[] newUsers = new long[dates.size()];
+        long total = 0;
+        for (DateCountDTO count : userMapper.countByCreateDate(end.plusDays(1).atStartOfDay())) {
+            int i = (int) ChronoUnit.DAYS.between(dates.get(0), count.getDate());
+            total += count.getCount();
+            if (i >= 0) {
+                newUsers[i] = count.getCount();
+            }
+        }
+        // 倒推每天结束时的总数
+        for (int i = dates.size() - 1; i >= 0; i--) {
+            totals[i] = total;
+            total -= newUsers[i];
+        }
+        return new UserMetrics.Growth(totals, newUsers, new long[dates.size()]);
+    }
+
+    private String join(long[] values) {
+        return Arrays.stream(values).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private List<GoodsSalesDTO> topFromLedger(List<LocalDate> dates) {
+        Long storeId = BaseContext.getStoreId();
+        long unionTtl = salesProperties.getUnionTtlSeconds();
+        SalesLedger.Top top = salesLedger.top(storeId, dates, TOP_SIZE, unionTtl);
+        for (int round = 0; round < MAX_LOAD_ROUNDS && !top.getMissing().isEmpty(); round++) {
+            loadDays(storeId, top.getMissing());
+            top = salesLedger.top(storeId, dates, TOP_SIZE, unionTtl);
+        }
+        return top.getMissing().isEmpty() ? top.getSales() : null;
+    }
+
+    /**
+     * 把多天的销量加载到 Redis
+     * 两天前的日期已经不会变化：一次读取汇总表，汇总表没有的日期按订单一次汇总并写入汇总表，标记随排行一起保留
+     * 今天、昨天仍有订单在完成，逐天按订单汇总，同时带上已计入的订单id，之后的实时累加不会重复计入；
+     * 标记只短时间有效，到期后重新加载
+     */
+    private void loadDays(Long storeId, List<LocalDate> dates) {
+        LocalDate openFrom = LocalDate.now().minusDays(1);
+        List<LocalDate> closed = dates.stream().filter(date -> date.isBefore(openFrom)).collect(Collectors.toList());
+        if (!closed.isEmpty()) {
+            Map<LocalDate, List<GoodsSalesDTO>> sales = salesCompactor.closedDays(closed);
+            for (LocalDate date : closed) {
+                salesLedger.load(storeId, date, sales.getOrDefault(date, Collections.emptyList()), Collections.emptyList(),
+                        retentionSeconds(), retentionSeconds());
+            }
+        }
+        for (LocalDate date : dates) {
+            if (!date.isBefore(openFrom)) {
+                List<GoodsSalesDTO> sales = orderMapper.sumSales(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+                List<Long> orderIds = orderMapper.selectCompletedIds(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+                salesLedger.load(storeId, date, sales, orderIds, retentionSeconds(), salesProperties.getOpenDayReadySeconds());
+            }
+        }
+    }
+
+    private long retentionSeconds() {
+        return TimeUnit.DAYS.toSeconds(salesProperties.getRetentionDays());
+    }
+}
@@ -0,0 +1,24 @@
+package com.sky.service.impl;
+
+import com.sky.cache.SetmealComboCache;
+import com.sky.json.SerializedPayload;
+import com.sky.service.SetmealService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SetmealServiceImpl implements SetmealService {
+
+    @Autowired
+    private SetmealComboCache setmealComboCache;
+
+    @Override
+    public SerializedPayload listCombos(Long categoryId) {
+        return setmealComboCache.list(categoryId);
+    }
+
+    @Override
+    public SerializedPayload getDishItems(Long id) {
+        return setmealComboCache.dishItems(id);
+    }
+}
@@ -0,0 +1,178 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.context.BaseContext;
+import com.sky.dto.DishStockDTO;
+import com.sky.dto.StockReservationDTO;
+import com.sky.entity.DishStock;
+import com.sky.exception.StockBusinessException;
+import com.sky.mapper.DishStockMapper;
+import com.sky.properties.StockProperties;
+import com.sky.service.StockService;
+import com.sky.stock.LocalStockCounter;
+import com.sky.stock.StockLedger;
+import com.sky.vo.DishStockVO;
+import com.sky.vo.StockReservationVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 菜品每日库存：预占在 Redis 账本与节点本地计数上完成，不更新 dish、dish_stock 表，
+ * dish_stock 只保存库存上限，已预占数量由 StockReconciler 定期写回
+ */
+@Service
+@Slf4j
+public class StockServiceImpl implements StockService {
+
+    @Autowired
+    private DishStockMapper dishStockMapper;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private LocalStockCounter localStockCounter;
+
+    @Autowired
+    private StockProperties stockProperties;
+
+    @Override
+    public void setDailyStock(DishStockDTO dishStockDTO) {
+        if (dishStockDTO.getDishId() == null || dishStockDTO.getTotal() == null || dishStockDTO.getTotal() < 0) {
+            throw new StockBusinessException(MessageConstant.STOCK_INVALID);
+        }
+        LocalDate date = dishStockDTO.getStockDate() == null ? LocalDate.now() : dishStockDTO.getStockDate();
+        LocalDateTime now = LocalDateTime.now();
+        dishStockMapper.upsert(DishStock.builder()
+                .dishId(dishStockDTO.getDishId())
+                .stockDate(date)
+                .total(dishStockDTO.getTotal())
+                .createTime(now)
+                .updateTime(now)
+                .build());
+
+        // 账本不存在时按新库存初始化，已存在时把差值计入未分配库存
+        DishStock saved = dishStockMapper.selectByDishAndDate(dishStockDTO.getDishId(), date);
+        String key = stockLedger.stockKey(BaseContext.getStoreId(), date, dishStockDTO.getDishId());
+        stockLedger.init(key, date, saved.getTotal(), saved.getSold());
+        stockLedger.setTotal(key, saved.getTotal());
+    }
+
+    @Override
+    public DishStockVO getDailyStock(Long dishId, LocalDate date) {
+        LocalDate stockDate = date == null ? LocalDate.now() : date;
+        Map<Object, Object> ledger = stockLedger.snapshot(stockLedger.stockKey(BaseContext.getStoreId(), stockDate, dishId));
+        if (!ledger.isEmpty()) {
+            return DishStockVO.builder()
+                    .dishId(dishId)
+                    .stockDate(stockDate)
+                    .total(Integer.valueOf(ledger.get("total").toString()))
+                    .sold(Integer.valueOf(ledger.get("sold").toString()))
+                    .remaining(Integer.valueOf(ledger.get("remaining").toString()))
+                    .build();
+        }
+
+        DishStock dishStock = dishStockMapper.selectByDishAndDate(dishId, stockDate);
+        if (dishStock == null) {
+            return DishStockVO.builder().dishId(dishId).stockDate(stockDate).total(-1).sold(0).remaining(-1).build();
+        }
+        return DishStockVO.builder()
+                .dishId(dishId)
+                .stockDate(stockDate)
+                .total(dishStock.getTotal())
+                .sold(dishStock.getSold())
+                .remaining(dishStock.getTotal() - dishStock.getSold())
+                .build();
+    }
+
+    @Override
+    public StockReservationVO reserve(StockReservationDTO stockReservationDTO) {
+        Long userId = BaseContext.getUserId();
+        // 同一菜品合并数量，单次预占的总份数有上限
+        Map<Long, Integer> numbers = new LinkedHashMap<>();
+        int totalNumber = 0;
+        for (StockReservationDTO.Item item : stockReservationDTO.getItems()) {
+            if (item.getDishId() == null || item.getNumber() == null || item.getNumber() <= 0) {
+                throw new StockBusinessException(MessageConstant.STOCK_INVALID);
+            }
+            totalNumber += item.getNumber();
+            if (totalNumber > stockProperties.getMaxReservationNumber()) {
+                throw new StockBusinessException(MessageConstant.STOCK_RESERVATION_TOO_LARGE);
+            }
+            numbers.merge(item.getDishId(), item.getNumber(), Integer::sum);
+        }
+
+        Long storeId = BaseContext.getStoreId();
+        LocalDate today = LocalDate.now();
+        // 库存键 -> 数量：reserved 记入预占记录，taken 是本节点实际扣减的（失败时回滚）
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        Map<String, Integer> taken = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : numbers.entrySet()) {
+                String key = stockLedger.stockKey(storeId, today, entry.getKey());
+                LocalStockCounter.Result result = localStockCounter.take(key, entry.getValue());
+                if (result == LocalStockCounter.Result.NOT_INITIALIZED) {
+                    initialize(key, entry.getKey(), today);
+                    result = localStockCounter.take(key, entry.getValue());
+                }
+                if (result == LocalStockCounter.Result.TAKEN) {
+                    taken.put(key, entry.getValue());
+                } else if (result != LocalStockCounter.Result.UNLIMITED) {
+                    throw new StockBusinessException(MessageConstant.STOCK_NOT_ENOUGH);
+                }
+                reserved.put(key, entry.getValue());
+            }
+
+            String reservationId = UUID.randomUUID().toString().replace("-", "");
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expireTime = now.plusMinutes(stockProperties.getReservationTimeoutMinutes());
+            long nowMillis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long deadlineMillis = expireTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // 记录多保留一天，超时清理任务短暂停摆时仍能找到并释放
+            long ttlSeconds = TimeUnit.MINUTES.toSeconds(stockProperties.getReservationTimeoutMinutes()) + TimeUnit.DAYS.toSeconds(1);
+            // 同一用户未结束的预占过多时拒绝，扣减的库存由下面归还
+            if (!stockLedger.record(reservationId, userId, nowMillis, deadlineMillis, ttlSeconds,
+                    stockProperties.getMaxActiveReservations(), reserved)) {
+                throw new StockBusinessException(MessageConstant.STOCK_RESERVATION_LIMIT);
+            }
+            return StockReservationVO.builder().reservationId(reservationId).expireTime(expireTime).build();
+        } catch (RuntimeException ex) {
+            taken.forEach(localStockCounter::giveBack);
+            throw ex;
+        }
+    }
+
+    @Override
+    public void release(String reservationId) {
+        // 用户只能取消自己的预占，他人的预占按不存在处理
+        if (!stockLedger.release(reservationId, BaseContext.getUserId(), true)) {
+            throw new StockBusinessException(MessageConstant.STOCK_RESERVATION_NOT_FOUND);
+        }
+    }
+
+    @Override
+    public void confirm(String reservationId) {
+        if (!stockLedger.release(reservationId, false)) {
+            throw new StockBusinessException(MessageConstant.STOCK_RESERVATION_NOT_FOUND);
+        }
+    }
+
+    // 当日第一次预占该菜品时从 MySQL 加载账本，多个节点并发初始化时只有第一个生效
+    private void initialize(String key, Long dishId, LocalDate date) {
+        DishStock dishStock = dishStockMapper.selectByDishAndDate(dishId, date);
+        if (dishStock == null) {
+            stockLedger.init(key, date, -1, 0);
+        } else {
+            stockLedger.init(key, date, dishStock.getTotal(), dishStock.getSold());
+        }
+    }
+}
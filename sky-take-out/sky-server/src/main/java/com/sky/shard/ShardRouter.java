@@ -0,0 +1,87 @@
+package com.sky.shard;
+
+import com.sky.properties.ShardProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 门店 -> 分片的路由：每个门店独占一个分片（库），由 sky.shard.shards.分片名.store-id 配置
+ * 业务表中没有门店字段，同一个库里的数据都属于同一个门店，因此不允许多个门店共用一个分片；
+ * 没有门店id的请求落在默认分片。路由只来自配置，所有节点一致，迁移门店时修改配置后滚动重启
+ */
+@Slf4j
+public class ShardRouter {
+
+    private final String defaultShard;
+    private final List<String> shardNames;
+    private final Map<Long, String> storeShards;
+
+    public ShardRouter(ShardProperties shardProperties) {
+        this.defaultShard = shardProperties.getDefaultShard();
+        List<String> names = new ArrayList<>();
+        names.add(defaultShard);
+        Map<Long, String> stores = new HashMap<>();
+        shardProperties.getShards().forEach((name, shard) -> {
+            if (name.equals(defaultShard)) {
+                throw new IllegalStateException("分片名与默认分片重复：" + name);
+            }
+            if (shard.getStoreId() == null) {
+                throw new IllegalStateException("分片未配置门店：" + name);
+            }
+            String existing = stores.putIfAbsent(shard.getStoreId(), name);
+            if (existing != null) {
+                throw new IllegalStateException("门店" + shard.getStoreId() + "同时配置在分片" + existing + "和" + name);
+            }
+            names.add(name);
+        });
+        this.shardNames = Collections.unmodifiableList(names);
+        this.storeShards = Collections.unmodifiableMap(stores);
+        log.info("门店分片路由：默认分片{}，门店{}", defaultShard, storeShards);
+    }
+
+    /**
+     * 门店所在的分片
+     *
+     * @param storeId 为空时返回默认分片
+     * @return
+     * @throws IllegalArgumentException 门店未配置分片
+     */
+    public String shardFor(Long storeId) {
+        if (storeId == null) {
+            return defaultShard;
+        }
+        String shard = storeShards.get(storeId);
+        if (shard == null) {
+            throw new IllegalArgumentException("未配置的门店：" + storeId);
+        }
+        return shard;
+    }
+
+    /**
+     * 门店是否存在（已配置分片），为空表示默认门店，总是存在
+     *
+     * @param storeId
+     * @return
+     */
+    public boolean hasStore(Long storeId) {
+        return storeId == null || storeShards.containsKey(storeId);
+    }
+
+    /**
+     * 所有分片名（默认分片在前）
+     *
+     * @return
+     */
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+}
@@ -0,0 +1,84 @@
+package com.sky.shard;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.sky.context.BaseContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 按门店分库的路由数据源，位于 MyBatis 之下，Mapper 无需感知分片
+ * 获取连接时按当前请求上下文中的门店id（来自 JWT 的 storeId）选择分片；
+ * 事务在开启时获取连接，因此整个事务都在同一个分片上
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    // 显式指定的分片，用于需要遍历所有分片的后台任务（如发件箱投递）
+    private static final ThreadLocal<String> FORCED_SHARD = new ThreadLocal<>();
+
+    private final ShardRouter shardRouter;
+    private final Map<String, DataSource> shards;
+
+    public ShardRoutingDataSource(ShardRouter shardRouter, Map<String, DataSource> shards) {
+        this.shardRouter = shardRouter;
+        this.shards = shards;
+        setTargetDataSources(new LinkedHashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(shardRouter.getDefaultShard()));
+        // 找不到分片时报错，而不是悄悄落到默认分片
+        setLenientFallback(false);
+    }
+
+    /**
+     * 在指定分片上执行，shard 为空时按门店路由
+     *
+     * @param shard
+     * @param action
+     * @param <T>
+     * @return
+     */
+    public static <T> T onShard(String shard, Supplier<T> action) {
+        String previous = FORCED_SHARD.get();
+        FORCED_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCED_SHARD.remove();
+            } else {
+                FORCED_SHARD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 在指定分片上执行
+     *
+     * @param shard
+     * @param action
+     */
+    public static void onShard(String shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String forced = FORCED_SHARD.get();
+        return forced != null ? forced : shardRouter.shardFor(BaseContext.getStoreId());
+    }
+
+    @Override
+    public void destroy() {
+        shards.values().forEach(dataSource -> {
+            if (dataSource instanceof DruidDataSource) {
+                ((DruidDataSource) dataSource).close();
+            }
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.sky.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 门店是否存在：门店只来自分片配置（每个门店独占一个分片），未开启分库时只有默认门店
+ * 请求头、登录参数中的门店id都是客户端传入的，写入上下文前先在这里校验，
+ * 避免不存在的门店落到路由异常，或者在缓存、库存中产生任意门店维度的键
+ */
+@Component
+public class StoreRegistry {
+
+    @Autowired
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    /**
+     * @param storeId 为空表示默认门店，总是存在
+     * @return
+     */
+    public boolean exists(Long storeId) {
+        if (storeId == null) {
+            return true;
+        }
+        ShardRouter router = shardRouter.getIfAvailable();
+        return router != null && router.hasStore(storeId);
+    }
+}
@@ -0,0 +1,153 @@
+package com.sky.stock;
+
+import com.sky.properties.StockProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点本地的库存计数：按库存键持有从 Redis 租来的库存，大部分预占在本地扣减完成，不访问 Redis
+ * 本地不够时向 Redis 租用一批（库存紧张时只按需扣减），租约到期把未用完的部分归还
+ * 已扣减数量定期上报 Redis 的 sold 字段
+ */
+@Component
+@Slf4j
+public class LocalStockCounter {
+
+    public enum Result {
+        // 已扣减
+        TAKEN,
+        // 当日不限量，没有扣减
+        UNLIMITED,
+        // 库存不足
+        NOT_ENOUGH,
+        // Redis 中还没有当日账本，需要从 MySQL 初始化后重试
+        NOT_INITIALIZED
+    }
+
+    @Autowired
+    private StockProperties stockProperties;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    private final Map<String, StripedAllotment> allotments = new ConcurrentHashMap<>();
+
+    /**
+     * 扣减库存
+     *
+     * @param key    库存键
+     * @param number 数量
+     * @return
+     */
+    public Result take(String key, int number) {
+        StripedAllotment allotment = allotments.computeIfAbsent(key, k -> new StripedAllotment(stripes(), System.nanoTime() + leaseNanos()));
+        if (allotment.unlimited) {
+            return Result.UNLIMITED;
+        }
+        if (allotment.tryTake(number)) {
+            return Result.TAKEN;
+        }
+
+        long grant = stockLedger.lease(key, number, stockProperties.getLeaseSize(), stockProperties.getDirectThreshold());
+        if (grant == StockLedger.NOT_INITIALIZED) {
+            return Result.NOT_INITIALIZED;
+        }
+        if (grant == StockLedger.UNLIMITED) {
+            allotment.unlimited = true;
+            return Result.UNLIMITED;
+        }
+        if (grant == 0) {
+            return Result.NOT_ENOUGH;
+        }
+        allotment.recordTaken(number);
+        if (grant > number) {
+            allotment.put(grant - number);
+        }
+        return Result.TAKEN;
+    }
+
+    /**
+     * 回滚一笔返回 TAKEN 的扣减
+     *
+     * @param key
+     * @param number
+     */
+    public void giveBack(String key, int number) {
+        StripedAllotment allotment = allotments.get(key);
+        if (allotment != null) {
+            allotment.giveBack(number);
+        } else {
+            // 跨天后本地计数已回收，扣减数量已经上报，直接在 Redis 中冲回
+            stockLedger.flush(key, -number, number);
+        }
+    }
+
+    /**
+     * 上报已扣减数量；租约到期的归还未用完的库存并重新确认是否限量
+     */
+    @Scheduled(fixedDelayString = "${sky.stock.flush-interval-millis:1000}")
+    public void flush() {
+        flush(false);
+    }
+
+    /**
+     * 停机时归还全部本地库存
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush(true);
+    }
+
+    private void flush(boolean returnAll) {
+        long now = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        Iterator<Map.Entry<String, StripedAllotment>> iterator = allotments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, StripedAllotment> entry = iterator.next();
+            String key = entry.getKey();
+            StripedAllotment allotment = entry.getValue();
+
+            boolean expired = returnAll || now - allotment.leaseDeadline > 0;
+            long returned = 0;
+            if (expired) {
+                returned = allotment.drainAvailable();
+                allotment.unlimited = false;
+                allotment.leaseDeadline = now + leaseNanos();
+            }
+            long taken = allotment.drainTaken();
+            if (taken != 0 || returned != 0) {
+                try {
+                    stockLedger.flush(key, taken, returned);
+                } catch (RuntimeException ex) {
+                    // 放回本地，下次再上报
+                    log.warn("库存上报失败：{}，{}", key, ex.getMessage());
+                    allotment.put(returned);
+                    allotment.recordTaken(taken);
+                    continue;
+                }
+            }
+            // 前一天的计数上报完毕后回收
+            if (expired && stockLedger.parse(key).getDate().isBefore(today)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private int stripes() {
+        int stripes = stockProperties.getStripes();
+        return stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+    }
+
+    private long leaseNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(stockProperties.getLeaseMillis());
+    }
+}
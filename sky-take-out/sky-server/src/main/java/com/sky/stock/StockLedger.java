@@ -0,0 +1,243 @@
+package com.sky.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 中的库存账本，所有修改都在 Lua 脚本中原子完成
+ * 每个门店、日期、菜品一个 Hash：stock:{storeId}:{yyyyMMdd}:{dishId}
+ * total 当日库存（-1 不限量），remaining 尚未分配给任何节点的库存，sold 已预占数量（由节点定期上报）
+ * 预占记录为 Hash stock:resv:{id}，字段为库存键、值为数量，另有 user 字段记录所属用户；
+ * 到期时间记录在 ZSET stock:resv:deadline 中，用户未结束的预占记录在 ZSET stock:resv:user:{userId} 中
+ */
+@Component
+public class StockLedger {
+
+    public static final long NOT_INITIALIZED = -2;
+    public static final long UNLIMITED = -1;
+
+    private static final String KEY_PREFIX = "stock:";
+    private static final String INDEX_PREFIX = "stock:index:";
+    private static final String RESERVATION_PREFIX = "stock:resv:";
+    private static final String DEADLINE_KEY = "stock:resv:deadline";
+    private static final String USER_RESERVATION_PREFIX = "stock:resv:user:";
+    // 预占记录中保存所属用户的字段，其余字段都是库存键
+    private static final String OWNER_FIELD = "user";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // 库存键保留两天，跨天的预占释放、对账仍能找到前一天的账本
+    private static final long KEY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(2);
+
+    // ARGV[1] 本次需要的数量 ARGV[2] 额外租用的数量 ARGV[3] 低于该剩余量时只按需扣减
+    // 返回 -2 未初始化，-1 不限量，0 库存不足，否则为实际分配的数量（不少于需要的数量）
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local remaining = redis.call('hget', KEYS[1], 'remaining') "
+                    + "if not remaining then return -2 end "
+                    + "if tonumber(redis.call('hget', KEYS[1], 'total')) < 0 then return -1 end "
+                    + "remaining = tonumber(remaining) "
+                    + "local need = tonumber(ARGV[1]) "
+                    + "if remaining < need then return 0 end "
+                    + "local grant = need "
+                    + "local spare = remaining - need - tonumber(ARGV[3]) "
+                    + "if spare > 0 then grant = need + math.min(tonumber(ARGV[2]), spare) end "
+                    + "redis.call('hincrby', KEYS[1], 'remaining', -grant) "
+                    + "return grant", Long.class);
+
+    // 账本不存在时按 MySQL 中的库存初始化，并登记到当天的索引中供对账使用
+    private static final RedisScript<Long> INIT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end "
+                    + "redis.call('hset', KEYS[1], 'total', ARGV[1]) "
+                    + "redis.call('hset', KEYS[1], 'remaining', tonumber(ARGV[1]) - tonumber(ARGV[2])) "
+                    + "redis.call('hset', KEYS[1], 'sold', ARGV[2]) "
+                    + "redis.call('expire', KEYS[1], ARGV[3]) "
+                    + "redis.call('sadd', KEYS[2], KEYS[1]) "
+                    + "redis.call('expire', KEYS[2], ARGV[3]) "
+                    + "return 1", Long.class);
+
+    // 调整当日库存：差值计入未分配库存；由不限量改为限量时按已预占数量重新计算
+    private static final RedisScript<Long> SET_TOTAL_SCRIPT = new DefaultRedisScript<>(
+            "local total = redis.call('hget', KEYS[1], 'total') "
+                    + "if not total then return 0 end "
+                    + "total = tonumber(total) "
+                    + "local newTotal = tonumber(ARGV[1]) "
+                    + "if total < 0 then "
+                    + "redis.call('hset', KEYS[1], 'remaining', newTotal - tonumber(redis.call('hget', KEYS[1], 'sold'))) "
+                    + "else redis.call('hincrby', KEYS[1], 'remaining', newTotal - total) end "
+                    + "redis.call('hset', KEYS[1], 'total', newTotal) "
+                    + "return 1", Long.class);
+
+    // 节点上报：ARGV[1] 新增的已预占数量 ARGV[2] 归还的未用租约
+    private static final RedisScript<Long> FLUSH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end "
+                    + "if ARGV[1] ~= '0' then redis.call('hincrby', KEYS[1], 'sold', ARGV[1]) end "
+                    + "if ARGV[2] ~= '0' then redis.call('hincrby', KEYS[1], 'remaining', ARGV[2]) end "
+                    + "return 1", Long.class);
+
+    // KEYS[3] 用户未结束的预占（ZSET，分数为到期时间）
+    // ARGV[1] 预占id ARGV[2] 到期时间戳 ARGV[3] 记录保留秒数 ARGV[4] 用户id ARGV[5] 当前时间戳
+    // ARGV[6] 用户未结束预占的上限 ARGV[7..] 库存键、数量交替  返回 0 表示用户未结束的预占已达上限，不保存
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('zremrangebyscore', KEYS[3], '-inf', ARGV[5]) "
+                    + "if redis.call('zcard', KEYS[3]) >= tonumber(ARGV[6]) then return 0 end "
+                    + "for i = 7, #ARGV, 2 do redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "redis.call('hset', KEYS[1], '" + OWNER_FIELD + "', ARGV[4]) "
+                    + "redis.call('expire', KEYS[1], ARGV[3]) "
+                    + "redis.call('zadd', KEYS[2], ARGV[2], ARGV[1]) "
+                    + "redis.call('zadd', KEYS[3], ARGV[2], ARGV[1]) "
+                    + "redis.call('expire', KEYS[3], ARGV[3]) "
+                    + "return 1", Long.class);
+
+    // 删除预占记录，ARGV[2] 为 1 时把数量还给未分配库存（取消、超时），为 0 时保留为已售（确认）
+    // ARGV[3] 不为空时只能结束该用户自己的预占，ARGV[4] 用户预占 ZSET 的键前缀
+    // 记录只会被删除一次，重复调用、多个节点同时清理超时预占都不会重复归还
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local owner = redis.call('hget', KEYS[1], '" + OWNER_FIELD + "') "
+                    + "if ARGV[3] ~= '' and owner ~= ARGV[3] then return 0 end "
+                    + "local items = redis.call('hgetall', KEYS[1]) "
+                    + "redis.call('zrem', KEYS[2], ARGV[1]) "
+                    + "if #items == 0 then return 0 end "
+                    + "redis.call('del', KEYS[1]) "
+                    + "if owner then redis.call('zrem', ARGV[4] .. owner, ARGV[1]) end "
+                    + "if ARGV[2] == '1' then "
+                    + "for i = 1, #items, 2 do "
+                    + "local total = items[i] ~= '" + OWNER_FIELD + "' and redis.call('hget', items[i], 'total') "
+                    + "if total and tonumber(total) >= 0 then "
+                    + "redis.call('hincrby', items[i], 'remaining', items[i + 1]) "
+                    + "redis.call('hincrby', items[i], 'sold', -tonumber(items[i + 1])) "
+                    + "end end end "
+                    + "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    public String stockKey(Long storeId, LocalDate date, Long dishId) {
+        return KEY_PREFIX + (storeId == null ? 0L : storeId) + ':' + date.format(DATE_FORMAT) + ':' + dishId;
+    }
+
+    /**
+     * 从库存键中解析门店id、日期、菜品id
+     */
+    public StockKey parse(String key) {
+        String[] parts = key.split(":");
+        return new StockKey(Long.valueOf(parts[1]), LocalDate.parse(parts[2], DATE_FORMAT), Long.valueOf(parts[3]));
+    }
+
+    public long lease(String key, int need, int leaseSize, int directThreshold) {
+        Long grant = stringRedisTemplate.execute(LEASE_SCRIPT, Collections.singletonList(key),
+                String.valueOf(need), String.valueOf(leaseSize), String.valueOf(directThreshold));
+        return grant == null ? 0 : grant;
+    }
+
+    public void init(String key, LocalDate date, int total, int sold) {
+        stringRedisTemplate.execute(INIT_SCRIPT, Arrays.asList(key, INDEX_PREFIX + date.format(DATE_FORMAT)),
+                String.valueOf(total), String.valueOf(sold), String.valueOf(KEY_TTL_SECONDS));
+    }
+
+    public void setTotal(String key, int total) {
+        stringRedisTemplate.execute(SET_TOTAL_SCRIPT, Collections.singletonList(key), String.valueOf(total));
+    }
+
+    public void flush(String key, long sold, long returned) {
+        stringRedisTemplate.execute(FLUSH_SCRIPT, Collections.singletonList(key), String.valueOf(sold), String.valueOf(returned));
+    }
+
+    /**
+     * 保存预占记录
+     *
+     * @param reservationId
+     * @param userId         预占所属用户
+     * @param nowMillis
+     * @param deadlineMillis
+     * @param ttlSeconds
+     * @param maxActive      用户同时未结束的预占上限
+     * @param items          库存键 -> 数量
+     * @return 用户未结束的预占已达上限时返回 false，不保存
+     */
+    public boolean record(String reservationId, Long userId, long nowMillis, long deadlineMillis, long ttlSeconds,
+                          int maxActive, Map<String, Integer> items) {
+        List<String> args = new ArrayList<>();
+        args.add(reservationId);
+        args.add(String.valueOf(deadlineMillis));
+        args.add(String.valueOf(ttlSeconds));
+        args.add(userId.toString());
+        args.add(String.valueOf(nowMillis));
+        args.add(String.valueOf(maxActive));
+        items.forEach((key, number) -> {
+            args.add(key);
+            args.add(number.toString());
+        });
+        Long result = stringRedisTemplate.execute(RECORD_SCRIPT,
+                Arrays.asList(RESERVATION_PREFIX + reservationId, DEADLINE_KEY, USER_RESERVATION_PREFIX + userId), args.toArray());
+        return result != null && result == 1;
+    }
+
+    /**
+     * 结束预占（确认、超时清理），不校验所属用户
+     *
+     * @param reservationId
+     * @param restock       是否归还库存
+     * @return 预占记录不存在（已结束或已过期清理）时返回 false
+     */
+    public boolean release(String reservationId, boolean restock) {
+        return release(reservationId, null, restock);
+    }
+
+    /**
+     * 结束预占
+     *
+     * @param reservationId
+     * @param userId        不为空时只能结束该用户自己的预占
+     * @param restock       是否归还库存
+     * @return 预占记录不存在（已结束、已过期清理或不属于该用户）时返回 false
+     */
+    public boolean release(String reservationId, Long userId, boolean restock) {
+        Long result = stringRedisTemplate.execute(RELEASE_SCRIPT, Arrays.asList(RESERVATION_PREFIX + reservationId, DEADLINE_KEY),
+                reservationId, restock ? "1" : "0", userId == null ? "" : userId.toString(), USER_RESERVATION_PREFIX);
+        return result != null && result == 1;
+    }
+
+    /**
+     * 查询已到期的预占id
+     */
+    public Set<String> expiredReservations(long nowMillis, int limit) {
+        return stringRedisTemplate.opsForZSet().rangeByScore(DEADLINE_KEY, 0, nowMillis, 0, limit);
+    }
+
+    public Map<Object, Object> snapshot(String key) {
+        return stringRedisTemplate.opsForHash().entries(key);
+    }
+
+    /**
+     * 当天初始化过的所有库存键
+     */
+    public Set<String> keysOf(LocalDate date) {
+        return stringRedisTemplate.opsForSet().members(INDEX_PREFIX + date.format(DATE_FORMAT));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StockKey {
+
+        // 0 表示没有门店
+        private final Long storeId;
+
+        private final LocalDate date;
+
+        private final Long dishId;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sky.stock;
+
+import com.sky.context.BaseContext;
+import com.sky.entity.DishStock;
+import com.sky.mapper.DishStockMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 库存的后台任务：释放超时未确认的预占；把 Redis 中的已预占数量定期写回 MySQL
+ * 每个节点都会执行，释放与写回都是幂等的
+ */
+@Component
+@Slf4j
+public class StockReconciler {
+
+    private static final int EXPIRE_BATCH = 200;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private DishStockMapper dishStockMapper;
+
+    @Scheduled(fixedDelay = 5000)
+    public void releaseExpired() {
+        try {
+            Set<String> expired = stockLedger.expiredReservations(System.currentTimeMillis(), EXPIRE_BATCH);
+            if (expired == null || expired.isEmpty()) {
+                return;
+            }
+            int released = 0;
+            for (String reservationId : expired) {
+                if (stockLedger.release(reservationId, true)) {
+                    released++;
+                }
+            }
+            log.info("释放超时的库存预占 {} 个", released);
+        } catch (Exception ex) {
+            log.error("释放超时的库存预占失败", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sky.stock.reconcile-interval-millis:30000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        // 跨天后前一天还可能有预占被取消，继续对账
+        reconcile(today.minusDays(1));
+        reconcile(today);
+    }
+
+    private void reconcile(LocalDate date) {
+        Set<String> keys;
+        try {
+            keys = stockLedger.keysOf(date);
+        } catch (Exception ex) {
+            log.error("读取库存账本失败，等待下次对账", ex);
+            return;
+        }
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            try {
+                Map<Object, Object> ledger = stockLedger.snapshot(key);
+                Object total = ledger.get("total");
+                if (total == null || Integer.parseInt(total.toString()) < 0) {
+                    continue;
+                }
+                StockLedger.StockKey stockKey = stockLedger.parse(key);
+                // 释放先于上报到达时 sold 会短暂为负
+                int sold = Math.max(0, Integer.parseInt(String.valueOf(ledger.get("sold"))));
+                // 定时任务没有请求上下文，按库存键中的门店路由到门店所在的分片
+                BaseContext.setStoreId(stockKey.getStoreId() == 0L ? null : stockKey.getStoreId());
+                dishStockMapper.updateSold(DishStock.builder()
+                        .dishId(stockKey.getDishId())
+                        .stockDate(stockKey.getDate())
+                        .sold(sold)
+                        .updateTime(LocalDateTime.now())
+                        .build());
+            } catch (Exception ex) {
+                log.error("库存对账失败：{}", key, ex);
+            } finally {
+                BaseContext.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.sky.stock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点本地持有的某个菜品当日库存：从 Redis 租来的库存分散在多个分段上，
+ * 不同线程优先扣减各自的分段，高并发抢购时 CAS 冲突分摊到多个计数器上
+ * 已扣减但尚未上报 Redis 的数量同样分段累计
+ */
+class StripedAllotment {
+
+    private final AtomicLong[] available;
+
+    private final AtomicLong[] taken;
+
+    private final int mask;
+
+    // 租约到期时间（System.nanoTime），到期后未用完的库存归还 Redis
+    volatile long leaseDeadline;
+
+    // Redis 中该菜品当日不限量，租约到期前不再访问 Redis
+    volatile boolean unlimited;
+
+    StripedAllotment(int stripes, long leaseDeadline) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.available = new AtomicLong[size];
+        this.taken = new AtomicLong[size];
+        for (int i = 0; i < size; i++) {
+            available[i] = new AtomicLong();
+            taken[i] = new AtomicLong();
+        }
+        this.mask = size - 1;
+        this.leaseDeadline = leaseDeadline;
+    }
+
+    /**
+     * 从本地库存中扣减，从当前线程对应的分段开始找一个足够的分段
+     */
+    boolean tryTake(int number) {
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            AtomicLong stripe = available[(start + i) & mask];
+            long current = stripe.get();
+            while (current >= number) {
+                if (stripe.compareAndSet(current, current - number)) {
+                    taken[start].addAndGet(number);
+                    return true;
+                }
+                current = stripe.get();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录一笔直接从 Redis 分配、不经过本地库存的扣减
+     */
+    void recordTaken(long number) {
+        taken[probe()].addAndGet(number);
+    }
+
+    /**
+     * 放入本地库存：租到的超出本次需要的部分
+     */
+    void put(long number) {
+        available[probe()].addAndGet(number);
+    }
+
+    /**
+     * 回滚一笔扣减：库存放回本地，同时冲减已扣减数量
+     */
+    void giveBack(long number) {
+        int index = probe();
+        available[index].addAndGet(number);
+        taken[index].addAndGet(-number);
+    }
+
+    /**
+     * 取出并清零尚未上报的已扣减数量
+     */
+    long drainTaken() {
+        long sum = 0;
+        for (AtomicLong stripe : taken) {
+            sum += stripe.getAndSet(0);
+        }
+        return sum;
+    }
+
+    /**
+     * 取出并清零本地库存，用于租约到期归还；与扣减并发时各分段的 getAndSet 保证每个单位只会被一方拿到
+     */
+    long drainAvailable() {
+        long sum = 0;
+        for (AtomicLong stripe : available) {
+            sum += stripe.getAndSet(0);
+        }
+        return sum;
+    }
+
+    private int probe() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+}
@@ -0,0 +1,73 @@
+package com.sky.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已生成缩略图的图片（按内容哈希）：全部尺寸上传成功后记入 Redis 集合 image:variants
+ * 缩略图路径只对记录过的图片生效，非图片文件、缩略图还在生成、去重命中但从未生成过缩略图的图片都返回原图路径
+ * 已记录的哈希常驻本地；未记录的查询结果缓存 30 秒，列表页不必每行访问一次 Redis
+ */
+@Component
+@Slf4j
+public class ImageVariantRegistry {
+
+    private static final String KEY = "image:variants";
+    private static final long MISS_TTL_MILLIS = 30000;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final Set<String> ready = ConcurrentHashMap.newKeySet();
+
+    // 哈希 -> 上次确认未生成的时间
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+
+    /**
+     * 图片的缩略图是否已全部生成
+     *
+     * @param hash
+     * @return Redis 不可用时返回 false，退回原图
+     */
+    public boolean isReady(String hash) {
+        if (ready.contains(hash)) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        Long checked = misses.get(hash);
+        if (checked != null && now - checked < MISS_TTL_MILLIS) {
+            return false;
+        }
+        boolean member;
+        try {
+            member = Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(KEY, hash));
+        } catch (RuntimeException ex) {
+            log.warn("查询缩略图记录失败，使用原图：{}", ex.getMessage());
+            member = false;
+        }
+        if (member) {
+            ready.add(hash);
+            misses.remove(hash);
+        } else {
+            misses.put(hash, now);
+        }
+        return member;
+    }
+
+    /**
+     * 记录图片的缩略图已全部生成
+     *
+     * @param hash
+     */
+    public void markReady(String hash) {
+        stringRedisTemplate.opsForSet().add(KEY, hash);
+        ready.add(hash);
+        misses.remove(hash);
+    }
+}
@@ -0,0 +1,309 @@
+package com.sky.upload;
+
+import com.sky.properties.UploadProperties;
+import com.sky.utils.AliOssUtil;
+import com.sky.vo.UploadQueueHealthVO;
+import com.sky.vo.UploadStatusVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * OSS 异步上传队列
+ * 文件先按 objectName 放在本地暂存目录，再由 ossTransferExecutor 上传，失败按指数退避定时重新提交（不占用上传线程等待）；
+ * 上传成功后才删除暂存文件，重试用完的文件由定时任务、进程重启时重新提交。
+ * 上传状态存放在 Redis 中，任何节点都可以查询
+ */
+@Component
+@Slf4j
+public class OssTransferQueue {
+
+    public static final String PART_SUFFIX = ".part";
+
+    private static final String STATUS_KEY = "upload:status:";
+
+    @Autowired
+    private AliOssUtil aliOssUtil;
+
+    @Autowired
+    private UploadProperties uploadProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("ossTransferExecutor")
+    private ThreadPoolTaskExecutor ossTransferExecutor;
+
+    private Path spoolDir;
+
+    // 本节点正在排队或上传的文件，相同内容的文件只提交一次
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // 重试定时器，只负责到点重新提交，不执行上传
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void init() throws IOException {
+        spoolDir = Paths.get(uploadProperties.getSpoolDir()).toAbsolutePath();
+        Files.createDirectories(spoolDir);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oss-transfer-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("异步上传暂存目录：{}", spoolDir);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 尚未到点的重试直接放弃，暂存文件保留，重启后继续上传
+        retryScheduler.shutdownNow();
+    }
+
+    public Path getSpoolDir() {
+        return spoolDir;
+    }
+
+    /**
+     * 提交上传任务
+     *
+     * @param objectName  OSS 文件名
+     * @param partFile    暂存目录中写好的临时文件，提交后由队列负责移动和删除
+     * @param afterUpload 上传成功后在上传线程中执行（如生成缩略图），参数为暂存文件
+     * @throws IOException
+     */
+    public void submit(String objectName, Path partFile, Consumer<Path> afterUpload) throws IOException {
+        if (!inFlight.add(objectName)) {
+            // 相同内容的文件正在上传，丢弃这份
+            Files.deleteIfExists(partFile);
+            return;
+        }
+        Path file;
+        try {
+            file = Files.move(partFile, spoolDir.resolve(objectName),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            inFlight.remove(objectName);
+            Files.deleteIfExists(partFile);
+            throw e;
+        }
+        enqueue(objectName, file, afterUpload);
+    }
+
+    /**
+     * 重新提交暂存目录中尚未上传完成的文件（启动时调用），并清理写了一半的临时文件
+     *
+     * @param afterUpload 参数为 objectName，返回上传成功后的处理逻辑
+     * @return 重新提交的文件数
+     * @throws IOException
+     */
+    public int resume(Function<String, Consumer<Path>> afterUpload) throws IOException {
+        for (Path file : listSpool()) {
+            if (file.getFileName().toString().endsWith(PART_SUFFIX)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        return requeue(afterUpload);
+    }
+
+    /**
+     * 重新提交暂存目录中不在本节点队列里的文件，即重试用完仍失败的文件（定时调用）
+     * 写了一半的临时文件可能正在接收上传内容，这里不处理
+     *
+     * @param afterUpload 参数为 objectName，返回上传成功后的处理逻辑
+     * @return 重新提交的文件数
+     * @throws IOException
+     */
+    public int requeue(Function<String, Consumer<Path>> afterUpload) throws IOException {
+        int requeued = 0;
+        for (Path file : listSpool()) {
+            String objectName = file.getFileName().toString();
+            if (!objectName.endsWith(PART_SUFFIX) && inFlight.add(objectName)) {
+                enqueue(objectName, file, afterUpload.apply(objectName));
+                requeued++;
+            }
+        }
+        return requeued;
+    }
+
+    /**
+     * 查询上传状态
+     *
+     * @param objectName
+     * @return 状态已过期或文件不存在时返回 null
+     */
+    public UploadStatusVO getStatus(String objectName) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(STATUS_KEY + objectName);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        String attempts = (String) entries.get("attempts");
+        String message = (String) entries.get("message");
+        return UploadStatusVO.builder()
+                .objectName(objectName)
+                .status((String) entries.get("status"))
+                .attempts(attempts == null ? 0 : Integer.valueOf(attempts))
+                .message(message == null || message.isEmpty() ? null : message)
+                .url(aliOssUtil.getUrl(objectName))
+                .build();
+    }
+
+    /**
+     * 队列健康状况
+     *
+     * @return
+     */
+    public UploadQueueHealthVO health() {
+        int depth = ossTransferExecutor.getThreadPoolExecutor().getQueue().size();
+        int remaining = ossTransferExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        long spooled;
+        try (Stream<Path> stream = Files.list(spoolDir)) {
+            spooled = stream.filter(file -> !file.getFileName().toString().endsWith(PART_SUFFIX)).count();
+        } catch (IOException e) {
+            log.warn("读取暂存目录失败：{}", spoolDir, e);
+            spooled = -1;
+        }
+        return UploadQueueHealthVO.builder()
+                .status(remaining == 0 ? "BUSY" : "UP")
+                .queueDepth(depth)
+                .queueCapacity(uploadProperties.getQueueCapacity())
+                .activeCount(ossTransferExecutor.getActiveCount())
+                .spooledFiles(spooled)
+                .succeeded(succeeded.get())
+                .retried(retried.get())
+                .failed(failed.get())
+                .rejected(rejected.get())
+                .build();
+    }
+
+    private void enqueue(String objectName, Path file, Consumer<Path> afterUpload) {
+        saveStatus(objectName, UploadStatusVO.PENDING, 0, null);
+        dispatch(objectName, file, afterUpload, 1, true);
+    }
+
+    /**
+     * 提交到上传线程池
+     *
+     * @param callerRuns 队列满时是否由当前线程同步上传：请求线程同步上传，重试定时器不执行上传，稍后再提交
+     */
+    private void dispatch(String objectName, Path file, Consumer<Path> afterUpload, int attempt, boolean callerRuns) {
+        try {
+            ossTransferExecutor.execute(() -> transfer(objectName, file, afterUpload, attempt));
+        } catch (TaskRejectedException e) {
+            rejected.incrementAndGet();
+            if (callerRuns) {
+                // 队列已满，由当前线程同步上传，请求线程被占用本身就是对上传方的限流
+                log.warn("异步上传队列已满，改为同步上传：{}", objectName);
+                transfer(objectName, file, afterUpload, attempt);
+            } else {
+                scheduleRetry(objectName, file, afterUpload, attempt, uploadProperties.getRetryBackoffMillis());
+            }
+        }
+    }
+
+    /**
+     * 上传一次，失败时按退避时间定时重新提交，重试用完后标记为 FAILED，暂存文件保留
+     */
+    private void transfer(String objectName, Path file, Consumer<Path> afterUpload, int attempt) {
+        saveStatus(objectName, UploadStatusVO.UPLOADING, attempt, null);
+        try {
+            if (!aliOssUtil.exists(objectName)) {
+                aliOssUtil.upload(file, objectName);
+            }
+        } catch (RuntimeException e) {
+            if (attempt >= uploadProperties.getMaxAttempts()) {
+                failed.incrementAndGet();
+                saveStatus(objectName, UploadStatusVO.FAILED, attempt, e.getMessage());
+                log.error("文件上传失败，已重试{}次，等待定时重新提交：{}", attempt, objectName, e);
+                inFlight.remove(objectName);
+                return;
+            }
+            retried.incrementAndGet();
+            saveStatus(objectName, UploadStatusVO.PENDING, attempt, e.getMessage());
+            long backoff = uploadProperties.getRetryBackoffMillis() << (attempt - 1);
+            log.warn("文件上传失败，{}ms 后重试：{}，原因：{}", backoff, objectName, e.getMessage());
+            scheduleRetry(objectName, file, afterUpload, attempt + 1, backoff);
+            return;
+        }
+
+        try {
+            succeeded.incrementAndGet();
+            saveStatus(objectName, UploadStatusVO.SUCCESS, null, null);
+            try {
+                afterUpload.accept(file);
+            } catch (Exception e) {
+                log.error("上传后处理失败：{}", objectName, e);
+            }
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除暂存文件失败：{}", file, e);
+        } finally {
+            inFlight.remove(objectName);
+        }
+    }
+
+    private void scheduleRetry(String objectName, Path file, Consumer<Path> afterUpload, int attempt, long delayMillis) {
+        try {
+            retryScheduler.schedule(() -> dispatch(objectName, file, afterUpload, attempt, false),
+                    delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 应用关闭，暂存文件保留，重启后继续上传
+            inFlight.remove(objectName);
+        }
+    }
+
+    private List<Path> listSpool() throws IOException {
+        try (Stream<Path> stream = Files.list(spoolDir)) {
+            return stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private void saveStatus(String objectName, String status, Integer attempts, String message) {
+        String key = STATUS_KEY + objectName;
+        Map<String, String> fields = new HashMap<>();
+        fields.put("status", status);
+        if (attempts != null) {
+            fields.put("attempts", String.valueOf(attempts));
+        }
+        fields.put("message", message == null ? "" : message);
+        try {
+            stringRedisTemplate.opsForHash().putAll(key, fields);
+            stringRedisTemplate.expire(key, uploadProperties.getStatusTtlMinutes(), TimeUnit.MINUTES);
+        } catch (RuntimeException e) {
+            // 状态只用于查询，Redis 不可用不影响上传
+            log.warn("保存上传状态失败：{}", objectName, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.sky.warmup;
+
+/**
+ * 可在启动时预热的缓存，由 CacheWarmupRunner 在应用就绪前统一调用
+ * 预热在没有请求上下文的线程中执行，只加载默认门店的数据，其他门店仍在首次访问时加载
+ */
+public interface CacheWarmer {
+
+    /**
+     * 缓存名，用于 sky.warmup.caches 开关和预热耗时统计
+     *
+     * @return
+     */
+    String name();
+
+    /**
+     * 加载缓存，抛出异常只会记录日志，不影响启动
+     */
+    void warmUp();
+}
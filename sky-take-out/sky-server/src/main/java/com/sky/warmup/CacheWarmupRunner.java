@@ -0,0 +1,97 @@
+package com.sky.warmup;
+
+import com.sky.properties.WarmupProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热：应用启动后、就绪之前并行执行所有 CacheWarmer
+ * ApplicationRunner 全部执行完后才会发布 ApplicationReadyEvent，就绪探针在此之前一直返回 OUT_OF_SERVICE，
+ * 滚动发布时新节点预热完成才会接入流量，不会把冷缓存、冷数据库缓冲池直接暴露给用户请求
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    @Autowired
+    private List<CacheWarmer> warmers;
+
+    @Autowired
+    private WarmupProperties warmupProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupProperties.isEnabled()) {
+            log.info("缓存预热已关闭");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, warmupProperties.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (CacheWarmer warmer : warmers) {
+                if (!warmupProperties.isEnabled(warmer.name())) {
+                    log.info("跳过缓存预热：{}", warmer.name());
+                    continue;
+                }
+                futures.add(CompletableFuture.runAsync(() -> warmUp(warmer), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(warmupProperties.getTimeoutSeconds(), TimeUnit.SECONDS);
+            log.info("缓存预热完成，共{}项，总耗时：{}ms", futures.size(), System.currentTimeMillis() - start);
+        } catch (TimeoutException ex) {
+            log.warn("缓存预热超过{}秒未完成，不再等待，直接对外提供服务", warmupProperties.getTimeoutSeconds());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.warn("缓存预热失败：{}", ex.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmUp(CacheWarmer warmer) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            warmer.warmUp();
+            success = true;
+        } catch (Exception ex) {
+            log.warn("缓存预热失败：{}，首次访问时加载：{}", warmer.name(), ex.getMessage());
+        } finally {
+            long nanos = System.nanoTime() - start;
+            Timer.builder("cache.warmup")
+                    .description("启动时缓存预热耗时")
+                    .tag("cache", warmer.name())
+                    .tag("result", success ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            log.info("缓存预热：{}，{}，耗时：{}ms", warmer.name(), success ? "成功" : "失败", TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.sky.warmup;
+
+import com.sky.properties.JwtProperties;
+import com.sky.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * jwt 预热：用管理端、用户端的秘钥各签发并解析一个令牌，
+ * 提前完成 jjwt、HMAC 算法实现的类加载和初始化，避免第一批登录、鉴权请求承担这部分耗时
+ */
+@Component
+public class JwtKeyWarmer implements CacheWarmer {
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Override
+    public String name() {
+        return "jwt-key";
+    }
+
+    @Override
+    public void warmUp() {
+        warmUp(jwtProperties.getAdminSecretKey());
+        warmUp(jwtProperties.getUserSecretKey());
+    }
+
+    private void warmUp(String secretKey) {
+        if (secretKey == null) {
+            return;
+        }
+        // jjwt 会往 claims 里写入过期时间，不能使用不可变的 Map
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("warmup", true);
+        String token = JwtUtil.createJWT(secretKey, 60000, claims);
+        JwtUtil.parseJWT(secretKey, token);
+    }
+}
@@ -0,0 +1,15 @@
+-- 菜品每日库存：total 为当日库存上限，sold 为已被预占（含已确认）的数量
+-- sold 由 Redis 中的实时计数定期对账写回，下单预占不直接更新该表，避免在热点行上加锁
+CREATE TABLE IF NOT EXISTS `dish_stock`
+(
+    `id`          bigint   NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `dish_id`     bigint   NOT NULL COMMENT '菜品id',
+    `stock_date`  date     NOT NULL COMMENT '库存日期',
+    `total`       int      NOT NULL COMMENT '当日库存',
+    `sold`        int      NOT NULL DEFAULT 0 COMMENT '已预占数量（对账写回）',
+    `create_time` datetime NOT NULL COMMENT '创建时间',
+    `update_time` datetime NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_dish_date` (`dish_id`, `stock_date`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='菜品每日库存';
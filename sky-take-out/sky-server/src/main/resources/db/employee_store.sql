@@ -0,0 +1,5 @@
+-- 员工所属门店：登录时用员工记录中的门店校验请求的门店，令牌中的门店也取自这里
+-- 分库部署时在每个门店的库中执行，并把已有员工更新为该库对应的门店，例如：
+-- UPDATE `employee` SET `store_id` = 1001;
+ALTER TABLE `employee`
+    ADD COLUMN `store_id` bigint NULL COMMENT '所属门店id，为空表示默认门店' AFTER `status`;
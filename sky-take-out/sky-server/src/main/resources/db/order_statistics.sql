@@ -0,0 +1,3 @@
+-- 订单统计按 下单日期、状态 分组计数，销量统计按下单时间范围筛选已完成订单
+-- (order_time, status) 覆盖这些查询，范围扫描索引即可，不回表
+CREATE INDEX `idx_order_time_status` ON `orders` (`order_time`, `status`);
@@ -0,0 +1,19 @@
+-- 事务发件箱：业务数据变化时在同一事务中写入，由 OutboxRelay 轮询投递到 Redis Stream
+CREATE TABLE IF NOT EXISTS `outbox_event`
+(
+    `id`             bigint      NOT NULL AUTO_INCREMENT COMMENT '主键，投递顺序',
+    `aggregate_type` varchar(32) NOT NULL COMMENT '聚合类型，如 menu',
+    `aggregate_id`   varchar(64) NOT NULL COMMENT '聚合id，如门店id',
+    `event_type`     varchar(64) NOT NULL COMMENT '事件类型',
+    `dedup_key`      char(32)    NOT NULL COMMENT '去重键，消费方据此去重',
+    `payload`        text        NOT NULL COMMENT '事件内容（json）',
+    `status`         tinyint     NOT NULL DEFAULT 0 COMMENT '0 待投递 1 已投递',
+    `attempts`       int         NOT NULL DEFAULT 0 COMMENT '投递失败次数',
+    `create_time`    datetime    NOT NULL COMMENT '创建时间',
+    `sent_time`      datetime             DEFAULT NULL COMMENT '投递时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_dedup_key` (`dedup_key`),
+    KEY `idx_status_id` (`status`, `id`),
+    KEY `idx_sent_time` (`sent_time`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='事务发件箱';
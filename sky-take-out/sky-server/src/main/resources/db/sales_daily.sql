@@ -0,0 +1,13 @@
+-- 菜品每日销量汇总：每晚由 SalesCompactor 按已完成订单汇总前两天的销量写入
+-- 销量排行查询 Redis 中没有的日期时从这里加载，不再对 order_detail、orders 做范围 GROUP BY
+CREATE TABLE IF NOT EXISTS `sales_daily`
+(
+    `id`          bigint      NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `sale_date`   date        NOT NULL COMMENT '销售日期（下单日期）',
+    `name`        varchar(32) NOT NULL COMMENT '商品名称',
+    `number`      int         NOT NULL COMMENT '销量',
+    `create_time` datetime    NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_date_name` (`sale_date`, `name`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='菜品每日销量汇总';
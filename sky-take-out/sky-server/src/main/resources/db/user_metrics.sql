@@ -0,0 +1,3 @@
+-- 用户统计从 Redis 读取，只有 Redis 中没有数据（首次使用或过期重载）时按注册日期 GROUP BY 一次
+-- create_time 上的索引让这次回填只扫描索引，不回表
+CREATE INDEX `idx_create_time` ON `user` (`create_time`);
@@ -0,0 +1,104 @@
+package com.sky.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 令牌桶的突发量与补充速率，时间由参数传入，不依赖真实等待
+ */
+public class LocalTokenBucketTest {
+
+    private static final int CAPACITY = 5;
+
+    // 每秒 10 个，间隔 100ms
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void burstUpToCapacity() {
+        LocalTokenBucket bucket = new LocalTokenBucket(CAPACITY, 10);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        // 桶已空，需要再等一个发放间隔
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+    }
+
+    @Test
+    public void refillAtConfiguredRate() {
+        LocalTokenBucket bucket = new LocalTokenBucket(CAPACITY, 10);
+        long now = System.nanoTime();
+        for (int i = 0; i < CAPACITY; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        // 间隔未到取不到，到了正好补充一个
+        assertTrue(bucket.tryAcquire(now + INTERVAL - 1) > 0);
+        assertEquals(0, bucket.tryAcquire(now + INTERVAL));
+        assertTrue(bucket.tryAcquire(now + INTERVAL) > 0);
+
+        // 3 个间隔后补充 3 个
+        long later = now + 4 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    public void idleDoesNotAccumulateBeyondCapacity() {
+        LocalTokenBucket bucket = new LocalTokenBucket(CAPACITY, 10);
+        long now = System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+
+        int acquired = 0;
+        while (bucket.tryAcquire(now) == 0) {
+            acquired++;
+        }
+        assertEquals(CAPACITY, acquired);
+        assertFalse(bucket.idleSince(now, TimeUnit.SECONDS.toNanos(1)));
+        assertTrue(bucket.idleSince(now + TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    public void concurrentBurstGrantsExactlyCapacity() throws Exception {
+        LocalTokenBucket bucket = new LocalTokenBucket(100, 1);
+        long now = System.nanoTime();
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger acquired = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryAcquire(now) == 0) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, acquired.get());
+    }
+}
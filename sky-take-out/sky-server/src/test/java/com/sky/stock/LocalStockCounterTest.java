@@ -0,0 +1,137 @@
+package com.sky.stock;
+
+import com.sky.properties.StockProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地库存计数与账本之间的守恒：并发扣减、回滚、定时上报和租约到期归还同时进行，
+ * 停机归还后账本中的已售数量等于调用方净扣减的数量，已售加剩余等于当日库存
+ */
+public class LocalStockCounterTest {
+
+    private static final int THREADS = 8;
+    private static final int TOTAL = 50_000;
+
+    @Test
+    public void takeFlushAndShutdownConserveStock() throws Exception {
+        StockProperties properties = new StockProperties();
+        properties.setStripes(4);
+        properties.setLeaseSize(20);
+        properties.setDirectThreshold(100);
+        // 租约很短，上报线程会频繁归还本地库存，与扣减并发
+        properties.setLeaseMillis(1);
+
+        MemoryLedger ledger = new MemoryLedger(TOTAL);
+        LocalStockCounter counter = new LocalStockCounter();
+        ReflectionTestUtils.setField(counter, "stockProperties", properties);
+        ReflectionTestUtils.setField(counter, "stockLedger", ledger);
+        String key = ledger.stockKey(1L, LocalDate.now(), 1L);
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong netTaken = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(seed);
+                await(start);
+                long taken = 0;
+                while (true) {
+                    int number = 1 + random.nextInt(3);
+                    LocalStockCounter.Result result = counter.take(key, number);
+                    if (result == LocalStockCounter.Result.NOT_ENOUGH) {
+                        // 剩余不足 3 件时可能一直取不到较大的数量，改为逐件取完
+                        if (counter.take(key, 1) != LocalStockCounter.Result.TAKEN) {
+                            break;
+                        }
+                        number = 1;
+                    }
+                    taken += number;
+                    if (random.nextInt(10) == 0) {
+                        counter.giveBack(key, number);
+                        taken -= number;
+                    }
+                }
+                netTaken.addAndGet(taken);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        Thread flusher = new Thread(() -> {
+            await(start);
+            while (running.get()) {
+                counter.flush();
+            }
+        });
+        flusher.start();
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        flusher.join();
+        counter.shutdown();
+
+        assertTrue(netTaken.get() > 0);
+        assertEquals(netTaken.get(), ledger.sold.get());
+        assertEquals(TOTAL, ledger.sold.get() + ledger.remaining.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 内存中的账本，租用、上报与 Redis 脚本的计算方式一致
+     */
+    private static class MemoryLedger extends StockLedger {
+
+        private final AtomicLong remaining;
+
+        private final AtomicLong sold = new AtomicLong();
+
+        private MemoryLedger(long total) {
+            this.remaining = new AtomicLong(total);
+        }
+
+        @Override
+        public synchronized long lease(String key, int need, int leaseSize, int directThreshold) {
+            long current = remaining.get();
+            if (current < need) {
+                return 0;
+            }
+            long grant = need;
+            long spare = current - need - directThreshold;
+            if (spare > 0) {
+                grant = need + Math.min(leaseSize, spare);
+            }
+            remaining.addAndGet(-grant);
+            return grant;
+        }
+
+        @Override
+        public synchronized void flush(String key, long sold, long returned) {
+            this.sold.addAndGet(sold);
+            remaining.addAndGet(returned);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sky.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分段本地库存在并发扣减、回滚与租约到期归还同时进行时的守恒：
+ * 每个放入的单位最终要么作为已扣减上报，要么作为未用完的库存归还，不会丢失也不会重复
+ */
+public class StripedAllotmentTest {
+
+    private static final int THREADS = 8;
+    private static final long LEASED = 200_000;
+
+    @Test
+    public void takeAndDrainConserveStock() throws Exception {
+        StripedAllotment allotment = new StripedAllotment(4, 0);
+        allotment.put(LEASED);
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong netTaken = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(seed);
+                await(start);
+                long taken = 0;
+                int misses = 0;
+                // 连续多次取不到才退出，归还线程会清空本地库存，之后的回滚又会放回少量库存
+                while (misses < 1000) {
+                    int number = 1 + random.nextInt(3);
+                    if (!allotment.tryTake(number)) {
+                        misses++;
+                        continue;
+                    }
+                    misses = 0;
+                    taken += number;
+                    if (random.nextInt(10) == 0) {
+                        allotment.giveBack(number);
+                        taken -= number;
+                    }
+                }
+                netTaken.addAndGet(taken);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        // 模拟定时上报：反复取走已扣减数量，并不时按租约到期归还本地库存
+        AtomicLong reported = new AtomicLong();
+        AtomicLong returned = new AtomicLong();
+        Thread flusher = new Thread(() -> {
+            await(start);
+            int round = 0;
+            while (running.get()) {
+                reported.addAndGet(allotment.drainTaken());
+                if (++round % 50 == 0) {
+                    returned.addAndGet(allotment.drainAvailable());
+                }
+            }
+        });
+        flusher.start();
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        flusher.join();
+        reported.addAndGet(allotment.drainTaken());
+        returned.addAndGet(allotment.drainAvailable());
+
+        assertTrue(netTaken.get() > 0);
+        assertEquals(netTaken.get(), reported.get());
+        assertEquals(LEASED, reported.get() + returned.get());
+    }
+
+    @Test
+    public void takeNeverOversells() throws Exception {
+        StripedAllotment allotment = new StripedAllotment(4, 0);
+        allotment.put(1000);
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong taken = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread worker = new Thread(() -> {
+                await(start);
+                while (allotment.tryTake(1)) {
+                    taken.incrementAndGet();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(1000, taken.get());
+        assertEquals(1000, allotment.drainTaken());
+        assertEquals(0, allotment.drainAvailable());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}